@@ -0,0 +1,128 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * Assigns dense vertex indexes (0, 1, 2, ...) to ASNs in the order they are
+ * first seen. Lookups use an open addressing table with linear probing over
+ * primitive int arrays, so no Integer is boxed while a file is loaded.
+ */
+public class ASNInterner {
+
+	private static final int EMPTY = -1;
+
+	/** hash table slots, an ASN and the index assigned to it */
+	private int[] keys;
+	private int[] values;
+	private int mask;
+	/** ASN of each assigned index */
+	private int[] asns;
+	private int size;
+
+	public ASNInterner() {
+		this(1024);
+	}
+
+	public ASNInterner(int expectedSize) {
+		int capacity = 16;
+		while (capacity < expectedSize * 2) {
+			capacity <<= 1;
+		}
+		this.keys = new int[capacity];
+		this.values = new int[capacity];
+		Arrays.fill(this.values, ASNInterner.EMPTY);
+		this.mask = capacity - 1;
+		this.asns = new int[Math.max(16, expectedSize)];
+		this.size = 0;
+	}
+
+	/**
+	 * @param asns
+	 *            distinct ASNs, the position of each one becomes its index
+	 * @return
+	 */
+	public static ASNInterner fromASNArray(int[] asns) {
+		ASNInterner interner = new ASNInterner(asns.length);
+		for (int asn : asns) {
+			interner.intern(asn);
+		}
+		return interner;
+	}
+
+	/**
+	 * @param asn
+	 * @return the index of the ASN, a new one is assigned if it was never seen
+	 */
+	public int intern(int asn) {
+		int slot = ASNInterner.hash(asn) & this.mask;
+		while (this.values[slot] != ASNInterner.EMPTY) {
+			if (this.keys[slot] == asn) {
+				return this.values[slot];
+			}
+			slot = (slot + 1) & this.mask;
+		}
+
+		if (this.size == this.asns.length) {
+			this.asns = Arrays.copyOf(this.asns, this.size * 2);
+		}
+		int index = this.size++;
+		this.asns[index] = asn;
+		this.keys[slot] = asn;
+		this.values[slot] = index;
+		/* keep the load factor under one half */
+		if (this.size * 2 > this.keys.length) {
+			this.rehash();
+		}
+		return index;
+	}
+
+	/**
+	 * @param asn
+	 * @return the index of the ASN, -1 if it was never seen
+	 */
+	public int indexOf(int asn) {
+		int slot = ASNInterner.hash(asn) & this.mask;
+		while (this.values[slot] != ASNInterner.EMPTY) {
+			if (this.keys[slot] == asn) {
+				return this.values[slot];
+			}
+			slot = (slot + 1) & this.mask;
+		}
+		return -1;
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * @return the ASN of every index, indexed by the vertex index
+	 */
+	public int[] toASNArray() {
+		return Arrays.copyOf(this.asns, this.size);
+	}
+
+	private void rehash() {
+		int[] oldKeys = this.keys;
+		int[] oldValues = this.values;
+		this.keys = new int[oldKeys.length * 2];
+		this.values = new int[oldKeys.length * 2];
+		Arrays.fill(this.values, ASNInterner.EMPTY);
+		this.mask = this.keys.length - 1;
+		for (int i = 0; i < oldKeys.length; ++i) {
+			if (oldValues[i] != ASNInterner.EMPTY) {
+				int slot = ASNInterner.hash(oldKeys[i]) & this.mask;
+				while (this.values[slot] != ASNInterner.EMPTY) {
+					slot = (slot + 1) & this.mask;
+				}
+				this.keys[slot] = oldKeys[i];
+				this.values[slot] = oldValues[i];
+			}
+		}
+	}
+
+	private static int hash(int asn) {
+		int h = asn * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
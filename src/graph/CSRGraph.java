@@ -0,0 +1,248 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * Immutable AS graph stored in compressed sparse row form. Vertexes are
+ * numbered densely from 0 to n-1, the neighbors of vertex v are stored in
+ * targets[offsets[v]] .. targets[offsets[v + 1] - 1].
+ *
+ * Vertex objects are only thin views on top of these arrays, they are created
+ * once when the graph is built.
+ *
+ * The business relationship of every link is kept per slot, seen from the
+ * vertex owning the range: relationships[slot] tells what targets[slot] is
+ * to that vertex.
+ */
+public class CSRGraph {
+
+	/** the neighbor is a customer of the vertex */
+	public static final byte REL_CUSTOMER = 0;
+	public static final byte REL_PEER = 1;
+	/** the neighbor is a provider of the vertex */
+	public static final byte REL_PROVIDER = 2;
+	public static final byte REL_SIBLING = 3;
+
+	/** start of the neighbor range of each vertex, n + 1 entries */
+	private final int[] offsets;
+	/** neighbor indexes of all vertexes, concatenated */
+	private final int[] targets;
+	/** relationship of each slot, parallel to targets */
+	private final byte[] relationships;
+	/** ASN of each vertex index */
+	private final int[] asns;
+	/** ASN to vertex index */
+	private final ASNInterner interner;
+	private final Vertex[] vertexTable;
+	private final int maxDegree;
+
+	/**
+	 * rebuild a graph from its arrays, e.g. when it is read back from a
+	 * snapshot
+	 *
+	 * @param offsets
+	 * @param targets
+	 * @param asns
+	 */
+	public CSRGraph(int[] offsets, int[] targets, byte[] relationships, int[] asns) {
+		this(offsets, targets, relationships, ASNInterner.fromASNArray(asns));
+	}
+
+	public CSRGraph(int[] offsets, int[] targets, byte[] relationships, ASNInterner interner) {
+		this.offsets = offsets;
+		this.targets = targets;
+		this.relationships = relationships;
+		this.asns = interner.toASNArray();
+		this.interner = interner;
+
+		int max = 0;
+		this.vertexTable = new Vertex[this.asns.length];
+		for (int i = 0; i < this.asns.length; ++i) {
+			this.vertexTable[i] = new Vertex(this, i);
+			max = Math.max(max, this.getDegree(i));
+		}
+		this.maxDegree = max;
+	}
+
+	public int getVertexCount() {
+		return this.asns.length;
+	}
+
+	/**
+	 * every undirected edge is stored twice, once for each end
+	 *
+	 * @return the number of entries in the target array
+	 */
+	public int getSlotCount() {
+		return this.targets.length;
+	}
+
+	public int getDegree(int vertex) {
+		return this.offsets[vertex + 1] - this.offsets[vertex];
+	}
+
+	public int getMaxDegree() {
+		return this.maxDegree;
+	}
+
+	/**
+	 * @param vertex
+	 * @return the first slot of the neighbor range of the vertex
+	 */
+	public int getNeighborStart(int vertex) {
+		return this.offsets[vertex];
+	}
+
+	/**
+	 * @param vertex
+	 * @return one past the last slot of the neighbor range of the vertex
+	 */
+	public int getNeighborEnd(int vertex) {
+		return this.offsets[vertex + 1];
+	}
+
+	public int getNeighbor(int slot) {
+		return this.targets[slot];
+	}
+
+	/**
+	 * @param slot
+	 * @return what the neighbor in the slot is to the vertex owning the slot,
+	 *         one of the REL_ codes
+	 */
+	public byte getRelationship(int slot) {
+		return this.relationships[slot];
+	}
+
+	/**
+	 * @param rel
+	 * @return the same relationship seen from the other end of the link
+	 */
+	public static byte reverseRelationship(byte rel) {
+		if (rel == CSRGraph.REL_CUSTOMER) {
+			return CSRGraph.REL_PROVIDER;
+		} else if (rel == CSRGraph.REL_PROVIDER) {
+			return CSRGraph.REL_CUSTOMER;
+		}
+		return rel;
+	}
+
+	/**
+	 * @param vertex
+	 * @param neighbor
+	 * @return the slot of the neighbor in the range of the vertex, -1 if they
+	 *         are not adjacent
+	 */
+	public int findSlot(int vertex, int neighbor) {
+		int slot = Arrays.binarySearch(this.targets, this.offsets[vertex],
+				this.offsets[vertex + 1], neighbor);
+		return slot < 0 ? -1 : slot;
+	}
+
+	/**
+	 * Keep only the links that can carry traffic of the given sources along a
+	 * valley free path: any number of customer to provider links, at most one
+	 * peer link, then any number of provider to customer links (siblings do
+	 * not change the direction). Every vertex is kept with the same index,
+	 * the ones that cannot be reached this way become isolated.
+	 *
+	 * A reversed valley free path is valley free as well, so the result
+	 * covers the traffic towards the sources too.
+	 *
+	 * @param sources
+	 * @return
+	 */
+	public CSRGraph valleyFreeSubgraph(int[] sources) {
+		int vertexCount = this.getVertexCount();
+		/*
+		 * search over (vertex, phase) states, phase 0 is still going up,
+		 * phase 1 has crossed the top of the path and may only go down
+		 */
+		boolean[] reached = new boolean[2 * vertexCount];
+		boolean[] live = new boolean[this.targets.length];
+		int[] queue = new int[2 * vertexCount];
+		int head = 0, tail = 0;
+		for (int source : sources) {
+			if (!reached[2 * source]) {
+				reached[2 * source] = true;
+				queue[tail++] = 2 * source;
+			}
+		}
+		while (head < tail) {
+			int state = queue[head++];
+			int vertex = state >>> 1;
+			boolean goingUp = (state & 1) == 0;
+			for (int slot = this.offsets[vertex]; slot < this.offsets[vertex + 1]; ++slot) {
+				byte rel = this.relationships[slot];
+				int nextState;
+				if (rel == CSRGraph.REL_CUSTOMER) {
+					nextState = 2 * this.targets[slot] + 1;
+				} else if (rel == CSRGraph.REL_SIBLING) {
+					nextState = 2 * this.targets[slot] + (goingUp ? 0 : 1);
+				} else if (!goingUp) {
+					continue;
+				} else if (rel == CSRGraph.REL_PROVIDER) {
+					nextState = 2 * this.targets[slot];
+				} else {
+					nextState = 2 * this.targets[slot] + 1;
+				}
+				live[slot] = true;
+				live[this.findSlot(this.targets[slot], vertex)] = true;
+				if (!reached[nextState]) {
+					reached[nextState] = true;
+					queue[tail++] = nextState;
+				}
+			}
+		}
+
+		int[] liveOffsets = new int[vertexCount + 1];
+		int liveCount = 0;
+		for (int slot = 0; slot < live.length; ++slot) {
+			if (live[slot]) {
+				++liveCount;
+			}
+		}
+		int[] liveTargets = new int[liveCount];
+		byte[] liveRelationships = new byte[liveCount];
+		int write = 0;
+		for (int v = 0; v < vertexCount; ++v) {
+			liveOffsets[v] = write;
+			for (int slot = this.offsets[v]; slot < this.offsets[v + 1]; ++slot) {
+				if (live[slot]) {
+					liveTargets[write] = this.targets[slot];
+					liveRelationships[write++] = this.relationships[slot];
+				}
+			}
+		}
+		liveOffsets[vertexCount] = write;
+		return new CSRGraph(liveOffsets, liveTargets, liveRelationships, this.interner);
+	}
+
+	public int getASN(int vertex) {
+		return this.asns[vertex];
+	}
+
+	/**
+	 * @param asn
+	 * @return the vertex index of the given ASN, -1 if it is not in the graph
+	 */
+	public int indexOf(int asn) {
+		return this.interner.indexOf(asn);
+	}
+
+	public Vertex getVertex(int vertex) {
+		return this.vertexTable[vertex];
+	}
+
+	/**
+	 * @param asn
+	 * @return the vertex view of the given ASN, null if it is not in the graph
+	 */
+	public Vertex getVertexByASN(int asn) {
+		int index = this.indexOf(asn);
+		if (index == -1) {
+			return null;
+		}
+		return this.vertexTable[index];
+	}
+}
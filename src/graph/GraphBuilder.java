@@ -0,0 +1,139 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * Collects the AS links while a relationship file is parsed and turns them
+ * into an immutable CSRGraph. ASNs are interned into dense vertex indexes as
+ * soon as a link is added. Duplicated links and self loops are dropped, when
+ * a link is listed twice with different relationships the first one in
+ * CSRGraph relationship order, seen from the end with the lower vertex
+ * index, is kept for both directions.
+ */
+public class GraphBuilder {
+
+	private ASNInterner interner;
+	/** vertex indexes of both ends of every link */
+	private int[] lhsList;
+	private int[] rhsList;
+	/** relationship of rhs seen from lhs, one of the CSRGraph.REL_ codes */
+	private byte[] relList;
+	private int edgeCount;
+
+	public GraphBuilder() {
+		this.interner = new ASNInterner();
+		this.lhsList = new int[1024];
+		this.rhsList = new int[1024];
+		this.relList = new byte[1024];
+		this.edgeCount = 0;
+	}
+
+	/**
+	 * @param lhsASN
+	 * @param rhsASN
+	 * @param type
+	 *            relationship type as written in CAIDA as-rel files, -1 if
+	 *            rhs is a customer of lhs, 0 for peers, 1 if rhs is a
+	 *            provider of lhs and 2 or 3 for siblings
+	 * @throws IllegalArgumentException
+	 *             if isRelationshipType(type) is false
+	 */
+	public void addEdge(int lhsASN, int rhsASN, int type) {
+		byte rel;
+		if (type == -1) {
+			rel = CSRGraph.REL_CUSTOMER;
+		} else if (type == 0) {
+			rel = CSRGraph.REL_PEER;
+		} else if (type == 1) {
+			rel = CSRGraph.REL_PROVIDER;
+		} else if (type == 2 || type == 3) {
+			/* the serial files write siblings as 2 */
+			rel = CSRGraph.REL_SIBLING;
+		} else {
+			throw new IllegalArgumentException("Unknown AS relationship type " + type
+					+ " between " + lhsASN + " and " + rhsASN);
+		}
+
+		if (this.edgeCount == this.lhsList.length) {
+			this.lhsList = Arrays.copyOf(this.lhsList, this.edgeCount * 2);
+			this.rhsList = Arrays.copyOf(this.rhsList, this.edgeCount * 2);
+			this.relList = Arrays.copyOf(this.relList, this.edgeCount * 2);
+		}
+		this.lhsList[this.edgeCount] = this.interner.intern(lhsASN);
+		this.rhsList[this.edgeCount] = this.interner.intern(rhsASN);
+		this.relList[this.edgeCount] = rel;
+		++this.edgeCount;
+	}
+
+	/**
+	 * @param type
+	 * @return true if addEdge accepts the relationship type
+	 */
+	public static boolean isRelationshipType(int type) {
+		return type >= -1 && type <= 3;
+	}
+
+	public CSRGraph build() {
+		int vertexCount = this.interner.size();
+		int[] lhsIndex = this.lhsList;
+		int[] rhsIndex = this.rhsList;
+
+		/*
+		 * count the degrees, then fill both directions of every link. While
+		 * building, a slot packs the neighbor index and the relationship as
+		 * (neighbor << 2 | rel), so sorting keeps them together.
+		 */
+		int[] offsets = new int[vertexCount + 1];
+		for (int i = 0; i < this.edgeCount; ++i) {
+			if (lhsIndex[i] != rhsIndex[i]) {
+				++offsets[lhsIndex[i] + 1];
+				++offsets[rhsIndex[i] + 1];
+			}
+		}
+		for (int v = 0; v < vertexCount; ++v) {
+			offsets[v + 1] += offsets[v];
+		}
+		int[] fill = Arrays.copyOf(offsets, vertexCount);
+		int[] targets = new int[offsets[vertexCount]];
+		for (int i = 0; i < this.edgeCount; ++i) {
+			if (lhsIndex[i] != rhsIndex[i]) {
+				targets[fill[lhsIndex[i]]++] = (rhsIndex[i] << 2) | this.relList[i];
+				targets[fill[rhsIndex[i]]++] = (lhsIndex[i] << 2)
+						| CSRGraph.reverseRelationship(this.relList[i]);
+			}
+		}
+
+		/*
+		 * sort every neighbor range and squeeze out duplicated links. A
+		 * duplicated link is resolved once, by the row of its lower vertex
+		 * index, which keeps its first relationship in CSRGraph order. The
+		 * row of the higher index, built later, takes the reverse of it, so
+		 * both directions of the link agree.
+		 */
+		byte[] relationships = new byte[targets.length];
+		int write = 0;
+		int start = 0;
+		for (int v = 0; v < vertexCount; ++v) {
+			int end = offsets[v + 1];
+			Arrays.sort(targets, start, end);
+			offsets[v] = write;
+			for (int slot = start; slot < end; ++slot) {
+				int neighbor = targets[slot] >>> 2;
+				if (write == offsets[v] || targets[write - 1] != neighbor) {
+					relationships[write] = (byte) (targets[slot] & 3);
+					targets[write++] = neighbor;
+				} else if (neighbor < v) {
+					/* the row of the neighbor is squeezed already */
+					int reverse = Arrays.binarySearch(targets, offsets[neighbor], offsets[neighbor + 1], v);
+					relationships[write - 1] = CSRGraph.reverseRelationship(relationships[reverse]);
+				}
+			}
+			start = end;
+		}
+		offsets[vertexCount] = write;
+		targets = Arrays.copyOf(targets, write);
+		relationships = Arrays.copyOf(relationships, write);
+
+		return new CSRGraph(offsets, targets, relationships, this.interner);
+	}
+}
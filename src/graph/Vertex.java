@@ -3,154 +3,60 @@ package graph;
 import java.util.*;
 
 
+/**
+ * A thin, immutable view of one vertex of a CSRGraph, the adjacency itself
+ * lives in the graph arrays. Per run state is kept by the engines.
+ */
 public class Vertex extends AbstractVertex{
 
-	private boolean visited; 
-	private boolean inWardenFringe;
-	private boolean inOppositeFringe;
-	private int blackNeighborsNumber;
-	private int oppositeNeighborsNumber;
-	private int separatorNeighborNumber;
-	private HashSet<Edge> edgeSet;
-	private HashSet<Vertex> neighborSet;
-	private List<Vertex> availableNeighborList;
+	private final CSRGraph graph;
+	private final int index;
+	private final List<Vertex> neighborList;
 
-	public Vertex(int idValue) {
-		super(idValue);
-		this.visited = false;
-		this.inWardenFringe = false;
-		this.inOppositeFringe = false;
-		this.blackNeighborsNumber = 0;
-		this.oppositeNeighborsNumber = 0;
-		this.separatorNeighborNumber = 0;
-		this.edgeSet = new HashSet<Edge>();
-		this.neighborSet = new HashSet<Vertex>();
-        this.availableNeighborList = new ArrayList<Vertex>();
+	Vertex(CSRGraph graph, int index) {
+		super(graph.getASN(index));
+		this.graph = graph;
+		this.index = index;
+		this.neighborList = new NeighborList();
 	}
-        
-	public Vertex(int idValue, Object supData){
-		super(idValue, supData);
-		this.edgeSet = new HashSet<Edge>();
-	}
-        
-	public void addNeighbor(Vertex newNeighbor) {
-		this.neighborSet.add(newNeighbor);
-	}
-        
-	public HashSet<Vertex> getAllNeighbors() {
-		return this.neighborSet;
-	}
-        
-	public List<Vertex> getAvailableNeighbors() {
-		return this.availableNeighborList;
-	}
-	
-	public void createAvailableNeighborList() {
-		this.availableNeighborList.clear();
-		for (Vertex neighbor : this.neighborSet) {
-			this.availableNeighborList.add(neighbor);
-		}
-	}
-	
-	public void printAvailableNeighborList() {
-		for (Vertex node : this.availableNeighborList) {
-			System.out.print(node.getVertexID() + ", ");
-		}
-		System.out.println();
-	}
-	
+
 	/**
-	 * randomly select and return a neighbor from the available neighbors,
-	 * if the list is empty, return null
-	 * 
-	 * @param random
-	 * @return
+	 * @return the dense index of this vertex in its graph
 	 */
-	public Vertex randomSelectANeighbor(Random random) {
-		if (this.availableNeighborList.isEmpty()) {
-			return null;
-		} else {
-			int randomIndex = random.nextInt(this.availableNeighborList.size());
-			Vertex nextNode = this.availableNeighborList.get(randomIndex);
-			this.availableNeighborList.remove(randomIndex);
-			//System.out.println("availableNeighborList size : " + this.availableNeighborList.size());
-			return nextNode;
-		}
+	public int getIndex() {
+		return this.index;
 	}
-        
-	public void addEdge(Edge newEdge){
-		this.edgeSet.add(newEdge);
-	}
-        
-	public Collection<Edge> getEdges(){
-		return this.edgeSet;
+
+	public List<Vertex> getAllNeighbors() {
+		return this.neighborList;
 	}
-        
+
 	public Collection<Integer> getAdjecentVertexIDs() {
-		HashSet<Integer> idSet = new HashSet<Integer>();
-                
-		for(Edge tEdge: this.edgeSet){
-			idSet.add(tEdge.getOtherVertex(this).getVertexID());
+		List<Integer> idList = new ArrayList<Integer>(this.getNeighborNumber());
+		for (int slot = this.graph.getNeighborStart(this.index); slot < this.graph.getNeighborEnd(this.index); ++slot) {
+			idList.add(this.graph.getASN(this.graph.getNeighbor(slot)));
 		}
-		return idSet;
+		return idList;
 	}
 
 	public int getNeighborNumber() {
-		return this.neighborSet.size();
-	}
-	public void setNeighborSets(int blackNeighborsNumber) {
-		this.blackNeighborsNumber = blackNeighborsNumber;
-		this.oppositeNeighborsNumber = this.getNeighborNumber() - blackNeighborsNumber;
-	}
-	public int getNumberOfBlackNeighbors() {
-		return this.blackNeighborsNumber;
-	}
-	public int getNumberOfOppositeNeighbors() {
-		return this.oppositeNeighborsNumber;
+		return this.graph.getDegree(this.index);
 	}
 
-	public void setNumberOfSeparatorNeighbors(int separatorCnt) {
-		this.separatorNeighborNumber = separatorCnt;
-	}
-	public void increaseNumberOfSeparatorNeighbors() {
-		++this.separatorNeighborNumber;
-	}
-	public void decreaseNumberOfSeparatorNeighbors() {
-		--this.separatorNeighborNumber;
-	}
-	public int getNumberOfSeparatorNeighbors() {
-		return this.separatorNeighborNumber;
-	}
-	
-	public boolean isVisited() {
-		if (this.visited)
-			return true;
-		return false;
-	}
-	public void setVisited() {
-		this.visited = true;
-	}
-	
-	public void setInWardenFringe() {
-		this.inWardenFringe = true;
-	}	
-	public void unsetInWardenFringe() {
-		this.inWardenFringe = false;
-	}
-	public boolean isInWardenFringe() {
-		return this.inWardenFringe;
-	}
-	public void setInOppositeFringe() {
-		this.inOppositeFringe = true;
-	}	
-	public void unsetInOppositeFringe() {
-		this.inOppositeFringe = false;
-	}
-	public boolean isInOppositeFringe() {
-		return this.inOppositeFringe;
-	}
-	public void unsetFringesFlag() {
-		this.inWardenFringe = false;
-		this.inOppositeFringe = false;
+	/**
+	 * read only list over the CSR neighbor range of this vertex
+	 */
+	private class NeighborList extends AbstractList<Vertex> implements RandomAccess {
+
+		@Override
+		public Vertex get(int position) {
+			return Vertex.this.graph.getVertex(Vertex.this.graph.getNeighbor(
+					Vertex.this.graph.getNeighborStart(Vertex.this.index) + position));
+		}
+
+		@Override
+		public int size() {
+			return Vertex.this.graph.getDegree(Vertex.this.index);
+		}
 	}
 }
@@ -0,0 +1,141 @@
+package parsing;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import graph.CSRGraph;
+import graph.GraphBuilder;
+
+/**
+ * Loads a CAIDA as-rel file ("lhs|rhs|rel" per line, '#' starts a comment
+ * line) into a CSRGraph.
+ *
+ * The file is memory mapped and the numbers are parsed directly from the
+ * bytes, so no String or tokenizer is allocated per line.
+ */
+public class ASRelParser {
+
+	private MappedByteBuffer buffer;
+	private int position;
+	private int limit;
+
+	private ASRelParser(MappedByteBuffer buffer) {
+		this.buffer = buffer;
+		this.position = 0;
+		this.limit = buffer.limit();
+	}
+
+	/**
+	 * read the as-rel file and build the graph of all the links in it
+	 *
+	 * @param asRelFile
+	 * @return
+	 * @throws IOException
+	 *             if the file cannot be read or a line is malformed
+	 */
+	public static CSRGraph parse(String asRelFile) throws IOException {
+		RandomAccessFile file = new RandomAccessFile(asRelFile, "r");
+		try {
+			FileChannel channel = file.getChannel();
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("as-rel file is too large to be mapped: " + asRelFile);
+			}
+			ASRelParser self = new ASRelParser(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+			GraphBuilder builder = new GraphBuilder();
+			self.readLinks(builder);
+			return builder.build();
+		} finally {
+			file.close();
+		}
+	}
+
+	private void readLinks(GraphBuilder builder) throws IOException {
+		int lhsASN, rhsASN, rel;
+		while (this.position < this.limit) {
+			byte current = this.buffer.get(this.position);
+
+			/*
+			 * ignore blanks
+			 */
+			if (current == ' ' || current == '\t' || current == '\r' || current == '\n') {
+				++this.position;
+				continue;
+			}
+
+			/*
+			 * Ignore comments
+			 */
+			if (current == '#') {
+				this.skipLine();
+				continue;
+			}
+
+			/*
+			 * Parse line
+			 */
+			lhsASN = this.readInt();
+			this.expect('|');
+			rhsASN = this.readInt();
+			this.expect('|');
+			int relStart = this.position;
+			rel = this.readInt();
+			if (!GraphBuilder.isRelationshipType(rel)) {
+				throw new IOException("Malformed as-rel line, unknown relationship " + rel
+						+ " at byte " + relStart);
+			}
+			/* later fields (e.g. the source of the inference) are not used */
+			this.skipLine();
+
+			builder.addEdge(lhsASN, rhsASN, rel);
+		}
+	}
+
+	/**
+	 * move the position to the beginning of the next line
+	 */
+	private void skipLine() {
+		while (this.position < this.limit && this.buffer.get(this.position) != '\n') {
+			++this.position;
+		}
+		++this.position;
+	}
+
+	private void expect(char separator) throws IOException {
+		if (this.position >= this.limit || this.buffer.get(this.position) != separator) {
+			throw new IOException("Malformed as-rel line, expected '" + separator
+					+ "' at byte " + this.position);
+		}
+		++this.position;
+	}
+
+	/**
+	 * parse an optionally signed decimal number starting at the current
+	 * position, a number that does not fit in an int is malformed
+	 */
+	private int readInt() throws IOException {
+		boolean negative = false;
+		if (this.position < this.limit && this.buffer.get(this.position) == '-') {
+			negative = true;
+			++this.position;
+		}
+		int start = this.position;
+		int value = 0;
+		while (this.position < this.limit) {
+			int digit = this.buffer.get(this.position) - '0';
+			if (digit < 0 || digit > 9) {
+				break;
+			}
+			if (value > (Integer.MAX_VALUE - digit) / 10) {
+				throw new IOException("Malformed as-rel line, number too large at byte " + start);
+			}
+			value = value * 10 + digit;
+			++this.position;
+		}
+		if (this.position == start) {
+			throw new IOException("Malformed as-rel line, expected a number at byte " + this.position);
+		}
+		return negative ? -value : value;
+	}
+}
@@ -44,11 +44,21 @@ public class FileParsingEngine {
 		this.printCDF(this.cntList, this.outputFile);
 	}
 	
+	/**
+	 * read the first comma separated field of every line, the result files
+	 * write the seed of the trial after the value
+	 * 
+	 * @throws IOException
+	 */
 	private void readFile() throws IOException {
 		String pollString;
 		BufferedReader inFile = new BufferedReader(new FileReader(this.parsingFile));
 		while (inFile.ready()) {
 			pollString = inFile.readLine().trim();
+			int comma = pollString.indexOf(',');
+			if (comma >= 0) {
+				pollString = pollString.substring(0, comma).trim();
+			}
 			if (pollString.length() > 0) {
 				this.cntList.add(Double.parseDouble(pollString));
 			}
@@ -0,0 +1,200 @@
+package parsing;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+import graph.CSRGraph;
+
+/**
+ * Binary cache of a parsed as-rel file, so repeated runs skip the text
+ * parsing.
+ *
+ * The snapshot is written next to the source file on the first load. Its
+ * header records the size, modification time and CRC32 of the source, a
+ * snapshot is only used when the size matches and either the modification
+ * time or the checksum matches too.
+ *
+ * Layout (big endian): magic, version, source size, source mtime, source
+ * crc, vertex count, slot count, payload crc; then the ASN table, the CSR
+ * offsets and the CSR targets as int arrays, and the relationship code of
+ * every slot as bytes.
+ */
+public class GraphSnapshot {
+
+	private static final int MAGIC = 0x43535247;
+	private static final int VERSION = 3;
+	private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 8 + 4 + 4 + 8;
+	public static final String SNAPSHOT_SUFFIX = ".snapshot";
+
+	/**
+	 * load the graph of the given as-rel file, from its snapshot if there is
+	 * a valid one, otherwise from the text file, in which case the snapshot
+	 * is (re)written.
+	 *
+	 * @param asRelFile
+	 * @return
+	 * @throws IOException
+	 */
+	public static CSRGraph load(String asRelFile) throws IOException {
+		File source = new File(asRelFile);
+		File snapshot = new File(asRelFile + GraphSnapshot.SNAPSHOT_SUFFIX);
+
+		if (snapshot.exists()) {
+			CSRGraph graph = GraphSnapshot.read(source, snapshot);
+			if (graph != null) {
+				return graph;
+			}
+		}
+
+		CSRGraph graph = ASRelParser.parse(asRelFile);
+		try {
+			GraphSnapshot.write(graph, source, snapshot);
+		} catch (IOException e) {
+			/* the cache is only an optimization, carry on without it */
+			System.out.println("Cannot write graph snapshot " + snapshot + ": " + e.getMessage());
+		}
+		return graph;
+	}
+
+	/**
+	 * @return the graph stored in the snapshot, null if the snapshot does not
+	 *         belong to the current source file or is damaged
+	 */
+	private static CSRGraph read(File source, File snapshot) throws IOException {
+		RandomAccessFile file = new RandomAccessFile(snapshot, "r");
+		try {
+			FileChannel channel = file.getChannel();
+			if (channel.size() < GraphSnapshot.HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+				return null;
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+			if (buffer.getInt() != GraphSnapshot.MAGIC || buffer.getInt() != GraphSnapshot.VERSION) {
+				return null;
+			}
+			long sourceSize = buffer.getLong();
+			long sourceTime = buffer.getLong();
+			long sourceCrc = buffer.getLong();
+			if (sourceSize != source.length()) {
+				return null;
+			}
+			/* touched but possibly unchanged, e.g. copied around */
+			if (sourceTime != source.lastModified() && sourceCrc != GraphSnapshot.checksum(source)) {
+				return null;
+			}
+
+			int vertexCount = buffer.getInt();
+			int slotCount = buffer.getInt();
+			long payloadCrc = buffer.getLong();
+			long payloadSize = 4L * (vertexCount + vertexCount + 1 + slotCount) + slotCount;
+			if (vertexCount < 0 || slotCount < 0 || buffer.remaining() != payloadSize) {
+				return null;
+			}
+			CRC32 crc = new CRC32();
+			crc.update(buffer.duplicate());
+			if (crc.getValue() != payloadCrc) {
+				return null;
+			}
+
+			IntBuffer ints = buffer.asIntBuffer();
+			int[] asns = new int[vertexCount];
+			int[] offsets = new int[vertexCount + 1];
+			int[] targets = new int[slotCount];
+			byte[] relationships = new byte[slotCount];
+			ints.get(asns);
+			ints.get(offsets);
+			ints.get(targets);
+			buffer.position(buffer.position() + 4 * (vertexCount + vertexCount + 1 + slotCount));
+			buffer.get(relationships);
+			return new CSRGraph(offsets, targets, relationships, asns);
+		} finally {
+			file.close();
+		}
+	}
+
+	/**
+	 * write the snapshot into a temporary file first, then move it in place,
+	 * so a concurrent run never reads a half written snapshot
+	 */
+	private static void write(CSRGraph graph, File source, File snapshot) throws IOException {
+		int vertexCount = graph.getVertexCount();
+		int slotCount = graph.getSlotCount();
+		ByteBuffer payload = ByteBuffer.allocate(4 * (vertexCount + vertexCount + 1 + slotCount) + slotCount);
+		for (int v = 0; v < vertexCount; ++v) {
+			payload.putInt(graph.getASN(v));
+		}
+		for (int v = 0; v < vertexCount; ++v) {
+			payload.putInt(graph.getNeighborStart(v));
+		}
+		payload.putInt(slotCount);
+		for (int slot = 0; slot < slotCount; ++slot) {
+			payload.putInt(graph.getNeighbor(slot));
+		}
+		for (int slot = 0; slot < slotCount; ++slot) {
+			payload.put(graph.getRelationship(slot));
+		}
+		payload.flip();
+		CRC32 crc = new CRC32();
+		crc.update(payload.duplicate());
+
+		ByteBuffer header = ByteBuffer.allocate(GraphSnapshot.HEADER_SIZE);
+		header.putInt(GraphSnapshot.MAGIC);
+		header.putInt(GraphSnapshot.VERSION);
+		header.putLong(source.length());
+		header.putLong(source.lastModified());
+		header.putLong(GraphSnapshot.checksum(source));
+		header.putInt(vertexCount);
+		header.putInt(slotCount);
+		header.putLong(crc.getValue());
+		header.flip();
+
+		File tempFile = File.createTempFile(snapshot.getName(), ".tmp", snapshot.getAbsoluteFile().getParentFile());
+		RandomAccessFile file = new RandomAccessFile(tempFile, "rw");
+		try {
+			FileChannel channel = file.getChannel();
+			channel.truncate(0);
+			while (header.hasRemaining()) {
+				channel.write(header);
+			}
+			while (payload.hasRemaining()) {
+				channel.write(payload);
+			}
+		} finally {
+			file.close();
+		}
+		if (!tempFile.renameTo(snapshot)) {
+			snapshot.delete();
+			if (!tempFile.renameTo(snapshot)) {
+				tempFile.delete();
+				throw new IOException("cannot move " + tempFile + " to " + snapshot);
+			}
+		}
+	}
+
+	/**
+	 * @return CRC32 of the whole file
+	 */
+	private static long checksum(File source) throws IOException {
+		RandomAccessFile file = new RandomAccessFile(source, "r");
+		try {
+			FileChannel channel = file.getChannel();
+			CRC32 crc = new CRC32();
+			long position = 0;
+			long size = channel.size();
+			while (position < size) {
+				long length = Math.min(size - position, Integer.MAX_VALUE);
+				crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+				position += length;
+			}
+			return crc.getValue();
+		} finally {
+			file.close();
+		}
+	}
+}
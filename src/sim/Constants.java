@@ -7,6 +7,14 @@ public class Constants {
 	public static final boolean OPT_DEBUG = false;
 	public static final boolean MERGEFRINGES = true;
 	public static final boolean TEST = true;
+	/** only keep the links usable by valley free paths from the wardens */
+	public static final boolean VALLEY_FREE = false;
+	/**
+	 * bucket queues instead of binary heaps for the degree based searches,
+	 * faster, but nodes with equal keys come out in a different order so the
+	 * separator sizes are not comparable with heap runs
+	 */
+	public static final boolean BUCKET_QUEUE = false;
 	public static final String SEPARATOR_OUTPUT_FILE = "separatorCnt";
 	public static final String WARDEN_OUTPUT_FILE = "wardenCnt";
 }
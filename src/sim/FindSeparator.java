@@ -1,13 +1,21 @@
 package sim;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.util.SplittableRandom;
 
 public class FindSeparator {
 	private static final String SEPARATOR_MODE = "sep";
 	private static final String OPTIMIZE_MODE = "opt";
+	private static final String MINIMUM_MODE = "min";
+	private static final String MULTILEVEL_MODE = "ml";
+	private static final String RERUN_MODE = "rerun";
+	/** number of vertexes the multilevel mode coarsens down to by default */
+	private static final int DEFAULT_COARSEST_SIZE = 1000;
+	/** hops around the wardens the separator may use when no opposite file is given */
+	private static final int DEFAULT_RADIUS = 2;
+	private static final String MINIMUM_USAGE = "Minimum Mode Usage: ./Find-separator <min> <wardenFile> [oppositeFile | radius]";
+	private static final int OPTIMIZE_ROUNDS = 20;
 	
 	/**
 	 * @param args
@@ -18,29 +26,42 @@ public class FindSeparator {
 		
 		long startTime, endTime;
 		startTime = System.currentTimeMillis();
-		GraphPartitioning partitionEngine = new GraphPartitioning();
 		if (args[0].equalsIgnoreCase(FindSeparator.SEPARATOR_MODE)) {
 			
-			if (args.length == 5) {
-				/* multiple trials */
+			if (args.length >= 5 && args.length <= 7) {
+				/* multiple trials, by default or with 0 threads one worker thread per core */
 				
 				System.out.println(args[2] + ", " + args[3]);
-				partitionEngine.multipleRuns(args[1], args[2], args[3], Integer.valueOf(args[4]));
+				int threads = args.length >= 6 ? Integer.valueOf(args[5]) : 0;
+				if (threads <= 0) {
+					threads = Runtime.getRuntime().availableProcessors();
+				}
+				long masterSeed = FindSeparator.seedArgument(args, 6);
+				System.out.println("master seed: " + masterSeed + ", threads: " + threads);
+				TrialRunner trialRunner = new TrialRunner(Topology.load(Constants.AS_REL_FILE, args[1]),
+						args[2], args[3], threads);
+				trialRunner.run(Integer.valueOf(args[4]), masterSeed);
 				
 			} else if (args.length == 4) {
-				/* single trial */
+				/* single trial, the rerun mode repeats it from the printed seed */
 				
-				partitionEngine.singleRun(args[1], args[2], args[3]);
+				long seed = new SplittableRandom().nextLong();
+				System.out.println("trial seed: " + seed);
+				GraphPartitioning partitionEngine = new GraphPartitioning(Topology.load(Constants.AS_REL_FILE, args[1]));
+				if (partitionEngine.singleRun(args[2], args[3], seed)) {
+					System.out.println("separator size: " + partitionEngine.getSeparatorSize() + ", warden size: "
+							+ partitionEngine.getWardenShoreSize());
+				}
 				
 			} else {
-				System.out.println("Separator Mode Usage: ./Find-separator <sep> <wardenFile> <wardenMode> <oppositeMode> <trials>\n" +
+				System.out.println("Separator Mode Usage: ./Find-separator <sep> <wardenFile> <wardenMode> <oppositeMode> <trials> [threads, 0 for one per core] [masterSeed]\n" +
 						"OR Usage: ./Find-separator <sep> <wardenFile> <wardenMode> <oppositeMode>");
 			}
 		
 		
 		} else if (args[0].equalsIgnoreCase(FindSeparator.OPTIMIZE_MODE)) {
-			if (args.length != 7) {
-				System.out.println("Optimize Mode Usage: ./Find-separator <opt> <wardenFile> <wardenMode> <oppositeMode> <wardenOptMode> <oppositeOptMode> <threshold>");
+			if (args.length < 7 || args.length > 9) {
+				System.out.println("Optimize Mode Usage: ./Find-separator <opt> <wardenFile> <wardenMode> <oppositeMode> <wardenOptMode> <oppositeOptMode> <threshold> [threads, 0 for one per core] [masterSeed]");
 				return;
 			}
 			
@@ -49,25 +70,64 @@ public class FindSeparator {
 			if (!dataFolder.exists()) {
 				dataFolder.mkdir();
 			}
-			BufferedWriter writeOutRatio = new BufferedWriter(new FileWriter(filePath + "/wTooRatio.txt"));
 			
-			for (int runs = 1; runs <= 20; ++runs) {
-				GraphPartitioning partitionEngine2 = new GraphPartitioning();
-				if (!partitionEngine2.singleRun(args[1], args[2], args[3])) {
-					System.out.println("Wrong separators...");
+			/* the graph is loaded once and shared by all the rounds */
+			int threads = args.length >= 8 ? Integer.valueOf(args[7]) : 0;
+			if (threads <= 0) {
+				threads = Runtime.getRuntime().availableProcessors();
+			}
+			long masterSeed = FindSeparator.seedArgument(args, 8);
+			System.out.println("master seed: " + masterSeed + ", threads: " + threads);
+			OptimizationRunner optimizationRunner = new OptimizationRunner(Topology.load(Constants.AS_REL_FILE, args[1]),
+					args[2], args[3], args[4], args[5], Integer.valueOf(args[6]), filePath, threads);
+			if (!optimizationRunner.run(FindSeparator.OPTIMIZE_ROUNDS, masterSeed)) {
+				System.out.println("Optimization failed, master seed: " + masterSeed);
+				System.exit(1);
+			}
+			
+		} else if (args[0].equalsIgnoreCase(FindSeparator.MINIMUM_MODE)) {
+			if (args.length != 2 && args.length != 3) {
+				System.out.println(FindSeparator.MINIMUM_USAGE);
+				return;
+			}
+			FindSeparator.findMinimumSeparator(args);
+			
+		} else if (args[0].equalsIgnoreCase(FindSeparator.MULTILEVEL_MODE)) {
+			if (args.length < 7 || args.length > 9) {
+				System.out.println("Multilevel Mode Usage: ./Find-separator <ml> <wardenFile> <wardenMode> <oppositeMode> <wardenOptMode> <oppositeOptMode> <threshold> [coarsestSize] [seed]");
+				return;
+			}
+			
+			int coarsestSize = args.length >= 8 ? Integer.valueOf(args[7]) : FindSeparator.DEFAULT_COARSEST_SIZE;
+			long seed = FindSeparator.seedArgument(args, 8);
+			System.out.println("seed: " + seed + ", coarsest size: " + coarsestSize);
+			Topology topology = Topology.load(Constants.AS_REL_FILE, args[1]);
+			MultilevelPartitioning multilevelEngine = new MultilevelPartitioning(topology, coarsestSize);
+			if (!multilevelEngine.run(args[2], args[3], args[4], args[5], Integer.valueOf(args[6]), seed)) {
+				System.out.println("Wrong separators...");
+				return;
+			}
+			if (Constants.TEST) {
+				SeparatorVerifier verifier = new SeparatorVerifier(topology.getGraph());
+				SeparatorVerifier.Verdict verdict = verifier.verify(topology.getWardens(), multilevelEngine.getResult());
+				if (!verdict.isPassed()) {
+					System.out.println("Test Failed!!! " + verifier.describe(verdict));
 					return;
 				}
-				/* pass separators, warden shore, opposite shore, warden set, and a threshold as parameters. */
-				OptimizeSeparator optimizeEngine = new OptimizeSeparator(partitionEngine2.getSeparators(), 
-						partitionEngine2.getRedundantWardenShore(), partitionEngine2.getOppositeShore(), 
-						partitionEngine2.getWardens(), args[4], args[5], Integer.valueOf(args[6]), filePath);
-				optimizeEngine.simulate(runs, writeOutRatio);
 			}
-			writeOutRatio.close();
+			System.out.println("separator size: " + multilevelEngine.getSeparatorSize() + ", warden size: "
+					+ multilevelEngine.getWardenShoreSize() + ", opposite size: " + multilevelEngine.getOppositeShoreSize());
+			
+		} else if (args[0].equalsIgnoreCase(FindSeparator.RERUN_MODE)) {
+			if (args.length < 5) {
+				System.out.println("Rerun Mode Usage: ./Find-separator <rerun> <wardenFile> <wardenMode> <oppositeMode> <trialSeed> [trialSeed ...]");
+				return;
+			}
+			FindSeparator.rerunTrials(args);
 			
 		} else {
 			/* mode under construction */
-			System.out.println("Mode: <sep>, <opt>");
+			System.out.println("Mode: <sep>, <opt>, <min>, <ml>, <rerun>");
 		}
 		
 		endTime = System.currentTimeMillis();
@@ -75,4 +135,76 @@ public class FindSeparator {
 				+ (endTime - startTime) / 60000 + " minutes.");
 	}
 	
+	/**
+	 * @param args
+	 * @param index
+	 * @return the seed given at the index of the arguments, a fresh random
+	 *         one if there are fewer arguments
+	 */
+	private static long seedArgument(String[] args, int index) {
+		return args.length > index ? Long.parseLong(args[index]) : new SplittableRandom().nextLong();
+	}
+	
+	/**
+	 * repeat single trials of a sep campaign from the seeds written after
+	 * their sizes, eg the ones with the smallest separators
+	 * 
+	 * @param args
+	 * @throws IOException
+	 */
+	private static void rerunTrials(String[] args) throws IOException {
+		GraphPartitioning partitionEngine = new GraphPartitioning(Topology.load(Constants.AS_REL_FILE, args[1]));
+		partitionEngine.setModes(args[2], args[3]);
+		for (int i = 4; i < args.length; ++i) {
+			long seed = Long.parseLong(args[i]);
+			if (!partitionEngine.runTrial(seed)) {
+				System.out.println("Trial " + seed + " failed, stop.");
+				return;
+			}
+			System.out.println("trial seed: " + seed + ", separator size: " + partitionEngine.getSeparatorSize()
+					+ ", warden size: " + partitionEngine.getWardenShoreSize());
+		}
+	}
+	
+	/**
+	 * exact minimum separator between the wardens and the ASes of the
+	 * opposite file, or every AS more than radius hops away from the wardens
+	 * 
+	 * @param args
+	 * @throws IOException
+	 */
+	private static void findMinimumSeparator(String[] args) throws IOException {
+		boolean byRadius = args.length == 2 || args[2].matches("\\d+");
+		int radius = args.length == 3 && byRadius ? Integer.valueOf(args[2]) : FindSeparator.DEFAULT_RADIUS;
+		if (radius < 1) {
+			System.out.println("radius must be at least 1\n" + FindSeparator.MINIMUM_USAGE);
+			return;
+		}
+		Topology topology = Topology.load(Constants.AS_REL_FILE, args[1]);
+		MinimumSeparator minimumEngine = new MinimumSeparator(topology);
+		int separatorSize;
+		if (!byRadius) {
+			System.out.println("oppositeFile " + args[2]);
+			separatorSize = minimumEngine.computeForOpposite(Topology.readVertices(topology.getGraph(), args[2]));
+			if (separatorSize == -1) {
+				System.out.println("No separator, a warden is an opposite AS or adjacent to one.");
+				return;
+			}
+		} else {
+			System.out.println("radius " + radius);
+			separatorSize = minimumEngine.computeForRadius(radius);
+		}
+		
+		if (Constants.TEST) {
+			SeparatorVerifier verifier = new SeparatorVerifier(topology.getGraph());
+			SeparatorVerifier.Verdict verdict = verifier.verify(topology.getWardens(), minimumEngine);
+			if (!verdict.isPassed()) {
+				System.out.println("Test Failed!!! " + verifier.describe(verdict));
+				return;
+			}
+		}
+		System.out.println("minimum separator size: " + separatorSize + ", warden size: "
+				+ minimumEngine.getWardenShoreSize() + ", opposite size: " + minimumEngine.getOppositeShoreSize());
+	}
+	
 }
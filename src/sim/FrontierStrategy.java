@@ -0,0 +1,418 @@
+package sim;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+import graph.CSRGraph;
+import graph.Vertex;
+import util.BucketQueue;
+import util.IndexedHeap;
+import util.IndexedRandomSet;
+import util.IntPriorityQueue;
+import util.IntRingQueue;
+import util.IntStack;
+
+/**
+ * The searching space of one side of a partitioning trial: the vertexes the
+ * side has reached and can still extend from, and the order it extends them.
+ *
+ * GraphPartitioning resolves the mode strings to strategies once in
+ * setModes, its loops then only call the strategy of each side instead of
+ * comparing mode strings for every vertex. Every strategy drives one of the
+ * partitioning loops, given by its Expansion, and both sides of a trial
+ * must share it. A new mode only needs a Factory passed to register().
+ */
+public abstract class FrontierStrategy {
+
+	/**
+	 * the partitioning loop a strategy drives
+	 */
+	public enum Expansion {
+		/** extend all the neutral neighbors of a random frontier vertex */
+		RANDOM,
+		/** extend one random neutral neighbor of the current vertex, dfs or bfs */
+		SEARCHING,
+		/** extend all the neutral neighbors of the vertex with the best key */
+		DEGREE_BASED
+	}
+
+	/**
+	 * creates the strategy of one side, once per engine
+	 */
+	public interface Factory {
+
+		FrontierStrategy create(CSRGraph graph, PartitionState state, boolean wardenShore);
+	}
+
+	/** keys of the degree based searches, the smallest key is extended first */
+	private interface Key {
+
+		int of(Vertex node, PartitionState state, boolean wardenShore);
+	}
+
+	/** the nodes with the most (or fewest) black neighbors */
+	private static final Key INWARD_KEY = new Key() {
+		@Override
+		public int of(Vertex node, PartitionState state, boolean wardenShore) {
+			return state.getBlackNeighbors(node, wardenShore);
+		}
+	};
+
+	/** the nodes with the most (or fewest) other neighbors */
+	private static final Key OUTWARD_KEY = new Key() {
+		@Override
+		public int of(Vertex node, PartitionState state, boolean wardenShore) {
+			return node.getNeighborNumber() - state.getBlackNeighbors(node, wardenShore);
+		}
+	};
+
+	private static final Key DEGREE_KEY = new Key() {
+		@Override
+		public int of(Vertex node, PartitionState state, boolean wardenShore) {
+			return node.getNeighborNumber();
+		}
+	};
+
+	/** factories by lower case mode */
+	private static final Map<String, Factory> FACTORIES = new ConcurrentHashMap<String, Factory>();
+
+	static {
+		FrontierStrategy.register("random", new Factory() {
+			@Override
+			public FrontierStrategy create(CSRGraph graph, PartitionState state, boolean wardenShore) {
+				return new RandomFrontier(graph);
+			}
+		});
+		FrontierStrategy.register("dfs", new Factory() {
+			@Override
+			public FrontierStrategy create(CSRGraph graph, PartitionState state, boolean wardenShore) {
+				return new StackFrontier(graph);
+			}
+		});
+		FrontierStrategy.register("bfs", new Factory() {
+			@Override
+			public FrontierStrategy create(CSRGraph graph, PartitionState state, boolean wardenShore) {
+				return new QueueFrontier(graph);
+			}
+		});
+		/* the bare modes keep the large first order of the original comparators */
+		FrontierStrategy.registerPriority("inlarge", FrontierStrategy.INWARD_KEY, true, true);
+		FrontierStrategy.registerPriority("insmall", FrontierStrategy.INWARD_KEY, false, true);
+		FrontierStrategy.registerPriority("inward", FrontierStrategy.INWARD_KEY, true, true);
+		FrontierStrategy.registerPriority("outlarge", FrontierStrategy.OUTWARD_KEY, true, true);
+		FrontierStrategy.registerPriority("outsmall", FrontierStrategy.OUTWARD_KEY, false, true);
+		FrontierStrategy.registerPriority("outward", FrontierStrategy.OUTWARD_KEY, true, true);
+		/* the degree never changes, the black neighbors need no counting */
+		FrontierStrategy.registerPriority("dgrlarge", FrontierStrategy.DEGREE_KEY, true, false);
+		FrontierStrategy.registerPriority("dgrsmall", FrontierStrategy.DEGREE_KEY, false, false);
+		FrontierStrategy.registerPriority("dgr", FrontierStrategy.DEGREE_KEY, true, false);
+	}
+
+	/**
+	 * make a mode available to setModes, replacing the factory of the mode if
+	 * there is one
+	 *
+	 * @param mode
+	 *            case insensitive
+	 * @param factory
+	 */
+	public static void register(String mode, Factory factory) {
+		FrontierStrategy.FACTORIES.put(mode.toLowerCase(), factory);
+	}
+
+	private static void registerPriority(String mode, final Key key, final boolean largeFirst,
+			final boolean countingNeighbors) {
+		FrontierStrategy.register(mode, new Factory() {
+			@Override
+			public FrontierStrategy create(CSRGraph graph, PartitionState state, boolean wardenShore) {
+				return new PriorityFrontier(graph, state, wardenShore, key, largeFirst, countingNeighbors);
+			}
+		});
+	}
+
+	/**
+	 * @param mode
+	 * @param graph
+	 * @param state
+	 * @param wardenShore
+	 * @return the strategy of the mode for one side, null if the mode is not
+	 *         registered
+	 */
+	public static FrontierStrategy create(String mode, CSRGraph graph, PartitionState state, boolean wardenShore) {
+		Factory factory = FrontierStrategy.FACTORIES.get(mode.toLowerCase());
+		return factory == null ? null : factory.create(graph, state, wardenShore);
+	}
+
+	public abstract Expansion getExpansion();
+
+	public abstract boolean isEmpty();
+
+	public abstract void add(Vertex node);
+
+	/**
+	 * @param random
+	 * @return the vertex to extend next, it stays in the frontier until
+	 *         finish() unless the strategy polls it right away
+	 */
+	public abstract Vertex next(SplittableRandom random);
+
+	/**
+	 * the vertex returned by next() cannot be extended anymore
+	 *
+	 * @param node
+	 */
+	public abstract void finish(Vertex node);
+
+	public abstract void clear();
+
+	/**
+	 * put the initial frontier in a random order
+	 *
+	 * @param random
+	 */
+	public void shuffle(SplittableRandom random) {
+	}
+
+	/**
+	 * @return true if the strategy needs the black neighbor counters of the
+	 *         PartitionState
+	 */
+	public boolean isCountingNeighbors() {
+		return false;
+	}
+
+	/**
+	 * recompute the key of the node after its black neighbors changed
+	 *
+	 * @param node
+	 * @return true if the node is in this frontier
+	 */
+	public boolean rekey(Vertex node) {
+		return false;
+	}
+
+	/**
+	 * the random search, a vertex stays in the frontier until the loop
+	 * finishes it
+	 */
+	private static class RandomFrontier extends FrontierStrategy {
+
+		private final CSRGraph graph;
+		private final IndexedRandomSet members;
+
+		RandomFrontier(CSRGraph graph) {
+			this.graph = graph;
+			this.members = new IndexedRandomSet(graph.getVertexCount());
+		}
+
+		@Override
+		public Expansion getExpansion() {
+			return Expansion.RANDOM;
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return this.members.isEmpty();
+		}
+
+		@Override
+		public void add(Vertex node) {
+			this.members.add(node.getIndex());
+		}
+
+		@Override
+		public Vertex next(SplittableRandom random) {
+			return this.graph.getVertex(this.members.get(random.nextInt(this.members.size())));
+		}
+
+		@Override
+		public void finish(Vertex node) {
+			this.members.remove(node.getIndex());
+		}
+
+		@Override
+		public void clear() {
+			this.members.clear();
+		}
+	}
+
+	/**
+	 * dfs, the current vertex is the top of the stack. A vertex is pushed once
+	 * when it leaves the neutral state, so the stack never outgrows the graph.
+	 */
+	private static class StackFrontier extends FrontierStrategy {
+
+		private final CSRGraph graph;
+		private final IntStack stack;
+
+		StackFrontier(CSRGraph graph) {
+			this.graph = graph;
+			this.stack = new IntStack(graph.getVertexCount());
+		}
+
+		@Override
+		public Expansion getExpansion() {
+			return Expansion.SEARCHING;
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return this.stack.isEmpty();
+		}
+
+		@Override
+		public void add(Vertex node) {
+			this.stack.push(node.getIndex());
+		}
+
+		@Override
+		public Vertex next(SplittableRandom random) {
+			return this.graph.getVertex(this.stack.peek());
+		}
+
+		@Override
+		public void finish(Vertex node) {
+			this.stack.pop();
+		}
+
+		@Override
+		public void clear() {
+			this.stack.clear();
+		}
+
+		@Override
+		public void shuffle(SplittableRandom random) {
+			this.stack.shuffle(random);
+		}
+	}
+
+	/**
+	 * bfs, the current vertex is the head of the queue
+	 */
+	private static class QueueFrontier extends FrontierStrategy {
+
+		private final CSRGraph graph;
+		private final IntRingQueue queue;
+
+		QueueFrontier(CSRGraph graph) {
+			this.graph = graph;
+			this.queue = new IntRingQueue();
+		}
+
+		@Override
+		public Expansion getExpansion() {
+			return Expansion.SEARCHING;
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return this.queue.isEmpty();
+		}
+
+		@Override
+		public void add(Vertex node) {
+			this.queue.add(node.getIndex());
+		}
+
+		@Override
+		public Vertex next(SplittableRandom random) {
+			return this.graph.getVertex(this.queue.peek());
+		}
+
+		@Override
+		public void finish(Vertex node) {
+			this.queue.poll();
+		}
+
+		@Override
+		public void clear() {
+			this.queue.clear();
+		}
+
+		@Override
+		public void shuffle(SplittableRandom random) {
+			this.queue.shuffle(random);
+		}
+	}
+
+	/**
+	 * the inward, outward and degree based searches, next() polls the vertex
+	 * with the best key. The keys are negated for the large first modes, so
+	 * they fit the buckets of [-max degree, max degree].
+	 */
+	private static class PriorityFrontier extends FrontierStrategy {
+
+		private final CSRGraph graph;
+		private final PartitionState state;
+		private final boolean wardenShore;
+		private final Key key;
+		private final boolean largeFirst;
+		private final boolean countingNeighbors;
+		private final IntPriorityQueue queue;
+
+		PriorityFrontier(CSRGraph graph, PartitionState state, boolean wardenShore, Key key, boolean largeFirst,
+				boolean countingNeighbors) {
+			this.graph = graph;
+			this.state = state;
+			this.wardenShore = wardenShore;
+			this.key = key;
+			this.largeFirst = largeFirst;
+			this.countingNeighbors = countingNeighbors;
+			if (Constants.BUCKET_QUEUE) {
+				this.queue = new BucketQueue(graph.getVertexCount(), -graph.getMaxDegree(), graph.getMaxDegree());
+			} else {
+				this.queue = new IndexedHeap(graph.getVertexCount());
+			}
+		}
+
+		private int priorityOf(Vertex node) {
+			int key = this.key.of(node, this.state, this.wardenShore);
+			return this.largeFirst ? -key : key;
+		}
+
+		@Override
+		public Expansion getExpansion() {
+			return Expansion.DEGREE_BASED;
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return this.queue.isEmpty();
+		}
+
+		@Override
+		public void add(Vertex node) {
+			this.queue.add(node.getIndex(), this.priorityOf(node));
+		}
+
+		@Override
+		public Vertex next(SplittableRandom random) {
+			return this.graph.getVertex(this.queue.poll());
+		}
+
+		@Override
+		public void finish(Vertex node) {
+			/* polled by next() already */
+		}
+
+		@Override
+		public void clear() {
+			this.queue.clear();
+		}
+
+		@Override
+		public boolean isCountingNeighbors() {
+			return this.countingNeighbors;
+		}
+
+		@Override
+		public boolean rekey(Vertex node) {
+			if (!this.queue.contains(node.getIndex())) {
+				return false;
+			}
+			this.queue.update(node.getIndex(), this.priorityOf(node));
+			return true;
+		}
+	}
+}
@@ -1,313 +1,214 @@
 package sim;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.BitSet;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.PriorityQueue;
-import java.util.Queue;
-import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.Set;
-import java.util.Stack;
-import java.util.StringTokenizer;
-
-import comparator.*;
 
+import graph.CSRGraph;
 import graph.Vertex;
 
 public class GraphPartitioning {
 
-	private static final String RAND_MODE = "random";
-	private static final String DFS_MODE = "dfs";
-	private static final String BFS_MODE = "bfs";
-	private static final String OUTWARD_LARGE_MODE = "outlarge";
-	private static final String OUTWARD_SMALL_MODE = "outsmall";
-	private static final String OUTWARD_MODE = "outward";
-	private static final String INWARD_LARGE_MODE = "inlarge";
-	private static final String INWARD_SMALL_MODE = "insmall";
-	private static final String INWARD_MODE = "inward";
-	private static final String DEGREE_LARGE_MODE = "dgrlarge";
-	private static final String DEGREE_SMALL_MODE = "dgrsmall";
-	private static final String DEGREE_MODE = "dgr";
-
+	/** the shared graph and wardens */
+	private Topology topology;
+	/** adjacency of the whole AS graph */
+	private CSRGraph graph;
+	/** per vertex state of the current trial */
+	private PartitionState state;
 	/** store initial wardens */
 	private Set<Vertex> wardenSet;
+	private int[] wardens;
 	/** store vertexes that must be in warden side */
 	private List<Vertex> wardenBlack;
-	/**
-	 * store the extending vertexes that are adjacent to wardens, which would
-	 * become separators
-	 */
-	private List<Vertex> wardenGray;
 	/** store vertexes that must be in opposite side */
 	private Set<Vertex> oppositeBlack;
-	/**
-	 * store the extending vertexes of the opposite side, might include those
-	 * will be in the opposite set
-	 */
-	private List<Vertex> oppositeGray;
-	/** store vertexes that are neither in warden side nor opposite side yet */
-	private HashMap<Integer, Vertex> neutralVertexMap;
-	/** a copy of neutralVertexMap */
-	private HashMap<Integer, Vertex> neutralVertexCopy;
 	/** store real separators */
 	private Set<Vertex> separatorSet;
-	/** write the number of separators into a file */
-	private BufferedWriter separatorOut;
-	/** write the number of wardens in the warden set into a file */
-	private BufferedWriter wardenOut;
-	Random randomNext;
-
-	private Stack<Vertex> wardenStack;
-	private Stack<Vertex> oppositeStack;
-	private Queue<Vertex> wardenQueue;
-	private Queue<Vertex> oppositeQueue;
-	private PriorityQueue<Vertex> wardenInwardPriorityQueue;
-	private PriorityQueue<Vertex> oppositeInwardPriorityQueue;
-	private PriorityQueue<Vertex> wardenOutwardPriorityQueue;
-	private PriorityQueue<Vertex> oppositeOutwardPriorityQueue;
-	private PriorityQueue<Vertex> wardenDegreePriorityQueue;
-	private PriorityQueue<Vertex> oppositeDegreePriorityQueue;
-
-	private String wardenMode;
-	private String oppositeMode;
+	/**
+	 * created from the seed of every trial, not synchronized and never
+	 * shared with another engine
+	 */
+	private SplittableRandom randomNext;
+
+	/**
+	 * the extending vertexes of both sides, the warden gray and opposite gray
+	 * sets, resolved from the modes by setModes. Null for an unknown mode.
+	 */
+	private FrontierStrategy wardenFrontier;
+	private FrontierStrategy oppositeFrontier;
 	/* nodes to be put into opposite shore */
 	private Set<Vertex> filteredSeparators;
 
-	private Set<Vertex> validSeparators;
-	private Set<Vertex> validWardenShore;
-
-	public GraphPartitioning() throws IOException {
+	/** the separators and warden shore of the components with wardens */
+	private BitSet validSeparators;
+	private BitSet validWardenShore;
+	private int validSeparatorSize;
+	private int validWardenShoreSize;
+	private int[] componentQueue;
+	private SeparatorVerifier verifier;
+	private PartitionResult result;
+	private SeparatorVerifier.Partition prunedResult;
+
+	public GraphPartitioning(Topology topology) {
+		this.topology = topology;
+		this.graph = topology.getGraph();
+		this.state = new PartitionState(topology);
 		this.wardenSet = new HashSet<Vertex>();
+		for (int i = 0; i < topology.getWardenCount(); ++i) {
+			this.wardenSet.add(this.graph.getVertex(topology.getWarden(i)));
+		}
+		this.wardens = topology.getWardens();
+		this.verifier = new SeparatorVerifier(this.graph);
+		this.result = new PartitionResult(topology, this.state);
 		this.wardenBlack = new ArrayList<Vertex>();
-		this.wardenGray = new ArrayList<Vertex>();
 		this.oppositeBlack = new HashSet<Vertex>();
-		this.oppositeGray = new ArrayList<Vertex>();
-		this.neutralVertexMap = new HashMap<Integer, Vertex>();
-		this.neutralVertexCopy = new HashMap<Integer, Vertex>();
 		this.separatorSet = new HashSet<Vertex>();
 		this.filteredSeparators = new HashSet<Vertex>();
-		this.validSeparators = new HashSet<Vertex>();
-		this.validWardenShore = new HashSet<Vertex>();
-
-		/* set fixed random.. */
-		this.randomNext = new Random();
-
-		this.wardenStack = new Stack<Vertex>();
-		this.oppositeStack = new Stack<Vertex>();
-		this.wardenQueue = new LinkedList<Vertex>();
-		this.oppositeQueue = new LinkedList<Vertex>();
-
-		/*
-		 * initialize the priority queues for an arbitrary type at the
-		 * beginning, which will be reinitialized later if it is any type of
-		 * degree based search
-		 */
-		this.wardenInwardPriorityQueue = new PriorityQueue<Vertex>(1,
-				new InwardLargeDegreeBasedCom());
-		this.wardenOutwardPriorityQueue = new PriorityQueue<Vertex>(1,
-				new OutwardLargeDegreeBasedCom());
-		this.wardenDegreePriorityQueue = new PriorityQueue<Vertex>(1,
-				new LargeDegreeBasedCom());
-		this.oppositeOutwardPriorityQueue = new PriorityQueue<Vertex>(1,
-				new OutwardLargeDegreeBasedCom());
-		this.oppositeInwardPriorityQueue = new PriorityQueue<Vertex>(1,
-				new InwardLargeDegreeBasedCom());
-		this.oppositeDegreePriorityQueue = new PriorityQueue<Vertex>(1,
-				new LargeDegreeBasedCom());
+		this.validSeparators = new BitSet(this.graph.getVertexCount());
+		this.validWardenShore = new BitSet(this.graph.getVertexCount());
+		this.componentQueue = new int[this.graph.getVertexCount()];
+		this.prunedResult = new SeparatorVerifier.Partition() {
+			@Override
+			public boolean isSeparator(int vertex) {
+				return GraphPartitioning.this.validSeparators.get(vertex);
+			}
+
+			@Override
+			public boolean isWardenShore(int vertex) {
+				return GraphPartitioning.this.validWardenShore.get(vertex);
+			}
+		};
+	}
+
+	private boolean isNeutral(Vertex node) {
+		return this.state.isNeutral(node);
 	}
 
 	/**
-	 * six types totally, divided by the type of priority, increasing or
-	 * decreasing; and the type of degree based search, inward, outward or
-	 * total.
+	 * a neutral node is reached by one of the sides
+	 * 
+	 * @param node
+	 * @param wardenShore
 	 */
-	private void initializePriorityQueue() {
-		if (this.wardenMode
-				.equalsIgnoreCase(GraphPartitioning.INWARD_LARGE_MODE)) {
-			this.wardenInwardPriorityQueue = new PriorityQueue<Vertex>(1,
-					new InwardLargeDegreeBasedCom());
-			this.wardenMode = GraphPartitioning.INWARD_MODE;
-		} else if (this.wardenMode
-				.equalsIgnoreCase(GraphPartitioning.INWARD_SMALL_MODE)) {
-			this.wardenInwardPriorityQueue = new PriorityQueue<Vertex>(1,
-					new InwardSmallDegreeBasedCom());
-			this.wardenMode = GraphPartitioning.INWARD_MODE;
-		} else if (this.wardenMode
-				.equalsIgnoreCase(GraphPartitioning.OUTWARD_LARGE_MODE)) {
-			this.wardenOutwardPriorityQueue = new PriorityQueue<Vertex>(1,
-					new OutwardLargeDegreeBasedCom());
-			this.wardenMode = GraphPartitioning.OUTWARD_MODE;
-		} else if (this.wardenMode
-				.equalsIgnoreCase(GraphPartitioning.OUTWARD_SMALL_MODE)) {
-			this.wardenOutwardPriorityQueue = new PriorityQueue<Vertex>(1,
-					new OutwardSmallDegreeBasedCom());
-			this.wardenMode = GraphPartitioning.OUTWARD_MODE;
-		} else if (this.wardenMode
-				.equalsIgnoreCase(GraphPartitioning.DEGREE_LARGE_MODE)) {
-			this.wardenDegreePriorityQueue = new PriorityQueue<Vertex>(1,
-					new LargeDegreeBasedCom());
-			this.wardenMode = GraphPartitioning.DEGREE_MODE;
-		} else if (this.wardenMode
-				.equalsIgnoreCase(GraphPartitioning.DEGREE_SMALL_MODE)) {
-			this.wardenDegreePriorityQueue = new PriorityQueue<Vertex>(1,
-					new SmallDegreeBasedCom());
-			this.wardenMode = GraphPartitioning.DEGREE_MODE;
-		} else
-			;
-
-		if (this.oppositeMode
-				.equalsIgnoreCase(GraphPartitioning.INWARD_LARGE_MODE)) {
-			this.oppositeInwardPriorityQueue = new PriorityQueue<Vertex>(1,
-					new InwardLargeDegreeBasedCom());
-			this.oppositeMode = GraphPartitioning.INWARD_MODE;
-		} else if (this.oppositeMode
-				.equalsIgnoreCase(GraphPartitioning.INWARD_SMALL_MODE)) {
-			this.oppositeInwardPriorityQueue = new PriorityQueue<Vertex>(1,
-					new InwardSmallDegreeBasedCom());
-			this.oppositeMode = GraphPartitioning.INWARD_MODE;
-		} else if (this.oppositeMode
-				.equalsIgnoreCase(GraphPartitioning.OUTWARD_LARGE_MODE)) {
-			this.oppositeOutwardPriorityQueue = new PriorityQueue<Vertex>(1,
-					new OutwardLargeDegreeBasedCom());
-			this.oppositeMode = GraphPartitioning.OUTWARD_MODE;
-		} else if (this.oppositeMode
-				.equalsIgnoreCase(GraphPartitioning.OUTWARD_SMALL_MODE)) {
-			this.oppositeOutwardPriorityQueue = new PriorityQueue<Vertex>(1,
-					new OutwardSmallDegreeBasedCom());
-			this.oppositeMode = GraphPartitioning.OUTWARD_MODE;
-		} else if (this.oppositeMode
-				.equalsIgnoreCase(GraphPartitioning.DEGREE_LARGE_MODE)) {
-			this.oppositeDegreePriorityQueue = new PriorityQueue<Vertex>(1,
-					new LargeDegreeBasedCom());
-			this.oppositeMode = GraphPartitioning.DEGREE_MODE;
-		} else if (this.oppositeMode
-				.equalsIgnoreCase(GraphPartitioning.DEGREE_SMALL_MODE)) {
-			this.oppositeDegreePriorityQueue = new PriorityQueue<Vertex>(1,
-					new SmallDegreeBasedCom());
-			this.oppositeMode = GraphPartitioning.DEGREE_MODE;
-		} else
-			;
+	private void removeFromNeutral(Vertex node, boolean wardenShore) {
+		this.setState(node, wardenShore ? PartitionState.WARDEN_GRAY : PartitionState.OPP_GRAY);
 	}
 
-	private void createNeutralVertexCopy() {
-		for (int key : this.neutralVertexMap.keySet()) {
-			this.neutralVertexCopy.put(key, this.neutralVertexMap.get(key));
-		}
+	private void addToWardenBlack(Vertex node) {
+		this.wardenBlack.add(node);
+		this.setState(node, PartitionState.WARDEN_BLACK);
 	}
 
-	public void multipleRuns(String wardenFile, String wardenMode,
-			String oppositeMode, int trials) throws IOException {
-		this.wardenMode = wardenMode;
-		this.oppositeMode = oppositeMode;
-		this.separatorOut = new BufferedWriter(new FileWriter(wardenMode + "_"
-				+ oppositeMode + "_SeparatorCnt.txt"));
-		this.wardenOut = new BufferedWriter(new FileWriter(wardenMode + "_"
-				+ oppositeMode + "_WardenCnt.txt"));
-		this.initializePriorityQueue();
-		this.generateGraph(wardenFile);
-		this.createNeutralVertexCopy();
-
-		for (int i = 0; i < trials; ++i) {
-			if (i % (trials / 10) == 0) {
-				System.out.println(100 * i / trials + "% done!");
-			}
-			this.reset();
-			if (this.wardenMode.equalsIgnoreCase(GraphPartitioning.RAND_MODE)
-					&& this.oppositeMode
-							.equalsIgnoreCase(GraphPartitioning.RAND_MODE)) {
-				this.randomRandomPartitioning();
-			} else if ((this.wardenMode
-					.equalsIgnoreCase(GraphPartitioning.DFS_MODE) || this.wardenMode
-					.equalsIgnoreCase(GraphPartitioning.BFS_MODE))
-					&& (this.oppositeMode
-							.equalsIgnoreCase(GraphPartitioning.DFS_MODE))
-					|| this.oppositeMode
-							.equalsIgnoreCase(GraphPartitioning.BFS_MODE)) {
-				this.searchingPartitioning();
-			} else if ((this.wardenMode
-					.equalsIgnoreCase(GraphPartitioning.INWARD_MODE)
-					|| this.wardenMode
-							.equalsIgnoreCase(GraphPartitioning.OUTWARD_MODE) || this.wardenMode
-						.equalsIgnoreCase(GraphPartitioning.DEGREE_MODE))
-					&& (this.oppositeMode
-							.equalsIgnoreCase(GraphPartitioning.INWARD_MODE))
-					|| this.oppositeMode
-							.equalsIgnoreCase(GraphPartitioning.OUTWARD_MODE)
-					|| this.oppositeMode
-							.equalsIgnoreCase(GraphPartitioning.DEGREE_MODE)) {
-				this.degreeBasedPartitioning();
-			} else {
-				/* under construction.. */
-				System.out.println("Invalid Mode!!");
-				return;
-			}
-			
-			this.removeRedundantComponents();
-			this.printResults(false);
-			if (Constants.TEST) {
-				if (!this.passSeparatorTest()) {
-					return;
-				}
+	private void addToSeparators(Vertex node) {
+		this.separatorSet.add(node);
+		this.setState(node, PartitionState.SEPARATOR);
+	}
+
+	private void addToOppositeBlack(Vertex node) {
+		this.oppositeBlack.add(node);
+		this.setState(node, PartitionState.OPP_BLACK);
+	}
+
+	/**
+	 * change the state of the node, the queued neighbors whose black
+	 * neighbor counters changed are re-keyed
+	 * 
+	 * @param node
+	 * @param newState
+	 */
+	private void setState(Vertex node, byte newState) {
+		if (!this.state.setState(node, newState)) {
+			return;
+		}
+		for (Vertex neighbor : node.getAllNeighbors()) {
+			if (!this.wardenFrontier.rekey(neighbor)) {
+				this.oppositeFrontier.rekey(neighbor);
 			}
 		}
-		this.separatorOut.close();
-		this.wardenOut.close();
 	}
 
-	public boolean singleRun(String wardenFile, String wardenMode,
-			String oppositeMode) throws IOException {
+	/**
+	 * select the searching modes of the following trials, must be called
+	 * once before runTrial
+	 * 
+	 * @param wardenMode
+	 * @param oppositeMode
+	 */
+	public void setModes(String wardenMode, String oppositeMode) {
+		this.wardenFrontier = FrontierStrategy.create(wardenMode, this.graph, this.state, true);
+		this.oppositeFrontier = FrontierStrategy.create(oppositeMode, this.graph, this.state, false);
+		if (this.hasValidModes()) {
+			this.state.setCountingNeighbors(this.wardenFrontier.isCountingNeighbors()
+					|| this.oppositeFrontier.isCountingNeighbors());
+		}
+	}
 
-		this.wardenMode = wardenMode;
-		this.oppositeMode = oppositeMode;
-		this.initializePriorityQueue();
-		this.generateGraph(wardenFile);
+	/**
+	 * @return true if both modes are registered and drive the same
+	 *         partitioning loop
+	 */
+	private boolean hasValidModes() {
+		return this.wardenFrontier != null && this.oppositeFrontier != null
+				&& this.wardenFrontier.getExpansion() == this.oppositeFrontier.getExpansion();
+	}
 
-		this.createNeutralVertexCopy();
+	/**
+	 * @param wardenMode
+	 * @param oppositeMode
+	 * @param seed
+	 *            the seed of the trial, as written by the sep mode
+	 * @return false if the separators fail the test
+	 * @throws IOException
+	 */
+	public boolean singleRun(String wardenMode, String oppositeMode, long seed)
+			throws IOException {
+		this.setModes(wardenMode, oppositeMode);
+		if (!this.runTrial(seed)) {
+			System.out.println("test failed...");
+			return false;
+		}
+		return true;
+	}
 
-		if (this.wardenMode.equalsIgnoreCase(GraphPartitioning.RAND_MODE)
-				&& this.wardenMode
-						.equalsIgnoreCase(GraphPartitioning.RAND_MODE)) {
-			this.randomRandomPartitioning();
-		} else if ((this.wardenMode
-				.equalsIgnoreCase(GraphPartitioning.DFS_MODE) || this.wardenMode
-				.equalsIgnoreCase(GraphPartitioning.BFS_MODE))
-				&& (this.oppositeMode
-						.equalsIgnoreCase(GraphPartitioning.DFS_MODE))
-				|| this.oppositeMode
-						.equalsIgnoreCase(GraphPartitioning.BFS_MODE)) {
-			for (Vertex node : this.neutralVertexMap.values()) {
-				node.createAvailableNeighborList();
-			}
-			this.searchingPartitioning();
-		} else if ((this.wardenMode.equalsIgnoreCase(GraphPartitioning.INWARD_MODE)
-				|| this.wardenMode.equalsIgnoreCase(GraphPartitioning.OUTWARD_MODE) || this.wardenMode
-					.equalsIgnoreCase(GraphPartitioning.DEGREE_MODE))
-				&& (this.oppositeMode.equalsIgnoreCase(GraphPartitioning.INWARD_MODE))
-				|| this.oppositeMode.equalsIgnoreCase(GraphPartitioning.OUTWARD_MODE)
-				|| this.oppositeMode.equalsIgnoreCase(GraphPartitioning.DEGREE_MODE)) {
-			this.degreeBasedPartitioning();
-		} else {
+	/**
+	 * run one partitioning trial from scratch, the random choices of the
+	 * trial only depend on the given seed.
+	 * 
+	 * @param seed
+	 * @return false if the mode is invalid or the separators fail the test
+	 */
+	public boolean runTrial(long seed) {
+		if (!this.hasValidModes()) {
 			/* under construction.. */
 			System.out.println("Invalid Mode!!");
 			return false;
 		}
+		this.reset();
+		this.randomNext = new SplittableRandom(seed);
+
+		switch (this.wardenFrontier.getExpansion()) {
+		case RANDOM:
+			this.randomRandomPartitioning();
+			break;
+		case SEARCHING:
+			this.searchingPartitioning();
+			break;
+		case DEGREE_BASED:
+			this.degreeBasedPartitioning();
+			break;
+		}
 		
 		this.removeRedundantComponents();
 		if (Constants.TEST) {
 			if (!this.passSeparatorTest()) {
-				System.out.println("test failed...");
 				return false;
 			}
 		}
-		this.printResults(true);
+		this.printResults();
 		
 		return true;
 	}
@@ -315,34 +216,21 @@ public class GraphPartitioning {
 	private void reset() {
 		if (Constants.SEP_DEBUG) {
 			System.out.println(this.wardenSet.size() + ", "
-					+ this.oppositeBlack.size() + ", " + this.wardenGray.size()
-					+ ", " + this.oppositeGray.size() + ", " + ", "
-					+ this.separatorSet.size());
+					+ this.oppositeBlack.size() + ", " + this.separatorSet.size());
 		}
 
 		this.validSeparators.clear();
 		this.validWardenShore.clear();
+		this.validSeparatorSize = 0;
+		this.validWardenShoreSize = 0;
 		this.wardenBlack.clear();
-		this.wardenGray.clear();
 		this.oppositeBlack.clear();
-		this.oppositeGray.clear();
 		this.separatorSet.clear();
-		this.neutralVertexMap.clear();
-
-		this.oppositeStack.clear();
-		this.oppositeQueue.clear();
-
-		this.wardenInwardPriorityQueue.clear();
-		this.wardenOutwardPriorityQueue.clear();
-		this.wardenDegreePriorityQueue.clear();
-		this.oppositeInwardPriorityQueue.clear();
-		this.oppositeOutwardPriorityQueue.clear();
-		this.oppositeDegreePriorityQueue.clear();
-		for (int key : this.neutralVertexCopy.keySet()) {
-			this.neutralVertexMap.put(key, this.neutralVertexCopy.get(key));
-			/* available neighbor list is used for random dfs search */
-			this.neutralVertexMap.get(key).createAvailableNeighborList();
-		}
+
+		this.wardenFrontier.clear();
+		this.oppositeFrontier.clear();
+		/* only the vertexes touched by the last trial are restored */
+		this.state.reset();
 	}
 
 	private void degreeBasedPartitioning() {
@@ -367,7 +255,7 @@ public class GraphPartitioning {
 				System.out.println("******");
 			}
 		}
-		this.classifyNodesInQueue();
+		this.classifyWardenFrontier();
 
 		if (Constants.SEP_DEBUG) {
 			System.out.println("before filte: " + this.getSeparatorSize());
@@ -379,34 +267,23 @@ public class GraphPartitioning {
 	}
 
 	/**
-	 * the nodes in the priority queue might be either a separator or a warden,
-	 * so this function is to classify these nodes into two parts
+	 * the nodes left in the warden frontier might be either a separator or a
+	 * warden, so this function is to classify these nodes into two parts
 	 */
-	private void classifyNodesInQueue() {
-		Queue<Vertex> Que = null;
-		if (this.wardenMode.equalsIgnoreCase(GraphPartitioning.INWARD_MODE)) {
-			Que = this.wardenInwardPriorityQueue;
-		} else if (this.wardenMode
-				.equalsIgnoreCase(GraphPartitioning.OUTWARD_MODE)) {
-			Que = this.wardenOutwardPriorityQueue;
-		} else if (this.wardenMode
-				.equalsIgnoreCase(GraphPartitioning.DEGREE_MODE)) {
-			Que = this.wardenDegreePriorityQueue;
-		} else {
-			/* invalid mode */
-		}
-		while (!Que.isEmpty()) {
-			Vertex node = Que.poll();
+	private void classifyWardenFrontier() {
+		while (!this.wardenFrontier.isEmpty()) {
+			Vertex node = this.wardenFrontier.next(this.randomNext);
+			this.wardenFrontier.finish(node);
 			boolean isSeparator = false;
 			for (Vertex neighbor : node.getAllNeighbors()) {
 				if (this.neighborCheck(neighbor)) {
-					this.separatorSet.add(node);
+					this.addToSeparators(node);
 					isSeparator = true;
 					break;
 				}
 			}
 			if (!isSeparator) {
-				this.wardenBlack.add(node);
+				this.addToWardenBlack(node);
 			}
 		}
 	}
@@ -441,7 +318,7 @@ public class GraphPartitioning {
 			}
 		}
 
-		this.checkWardenGray();
+		this.classifyWardenFrontier();
 	}
 
 	/**
@@ -453,15 +330,14 @@ public class GraphPartitioning {
 	 *         empty
 	 */
 	private boolean randomExtendWardenShore() {
-		int randomIndex, cntToBeGray;
+		int cntToBeGray;
 		boolean isSeparator, notFindNextNode = true;
 		while (notFindNextNode) {
 			/* if cannot find any vertex to extend, partitioning finishes! */
-			if (this.wardenGray.isEmpty())
+			if (this.wardenFrontier.isEmpty())
 				return true;
 
-			randomIndex = this.randomNext.nextInt(this.wardenGray.size());
-			Vertex currentNode = this.wardenGray.get(randomIndex);
+			Vertex currentNode = this.wardenFrontier.next(this.randomNext);
 
 			cntToBeGray = 0;
 			isSeparator = false;
@@ -470,13 +346,12 @@ public class GraphPartitioning {
 				 * if a node in gray set is adjacent to opposite , it is a
 				 * separator
 				 */
-				if (this.oppositeGray.contains(nextNode)
-						|| this.oppositeBlack.contains(nextNode)) {
+				if (this.state.isOpposite(nextNode)) {
 					isSeparator = true;
 				}
-				if (this.neutralVertexMap.containsKey(nextNode.getVertexID())) {
-					this.wardenGray.add(nextNode);
-					this.neutralVertexMap.remove(nextNode.getVertexID());
+				if (this.isNeutral(nextNode)) {
+					this.wardenFrontier.add(nextNode);
+					this.removeFromNeutral(nextNode, true);
 					++cntToBeGray;
 
 					if (Constants.SEP_DEBUG) {
@@ -495,21 +370,21 @@ public class GraphPartitioning {
 			 */
 			/*
 			 * if (isSeparator) { this.separatorSet.add(currentNode);
-			 * this.wardenGray.remove(currentNode); if (cntToBeGray != 0) {
+			 * this.wardenFrontier.finish(currentNode); if (cntToBeGray != 0) {
 			 * notFindNextNode = false; } } else if (cntToBeGray == 0) {
 			 * this.wardenBlack.add(currentNode);
-			 * this.wardenGray.remove(currentNode); } else { notFindNextNode =
+			 * this.wardenFrontier.finish(currentNode); } else { notFindNextNode =
 			 * false; }
 			 */
 			if (isSeparator) {
-				this.separatorSet.add(currentNode);
-				this.wardenGray.remove(currentNode);
+				this.addToSeparators(currentNode);
+				this.wardenFrontier.finish(currentNode);
 				if (cntToBeGray != 0) {
 					notFindNextNode = false;
 				}
 			} else {
-				this.wardenBlack.add(currentNode);
-				this.wardenGray.remove(currentNode);
+				this.addToWardenBlack(currentNode);
+				this.wardenFrontier.finish(currentNode);
 				if (cntToBeGray != 0) {
 					notFindNextNode = false;
 				}
@@ -529,21 +404,20 @@ public class GraphPartitioning {
 	 */
 	private boolean randomExtendOppositeShore() {
 
-		int randomIndex, cntToBeGray;
+		int cntToBeGray;
 		boolean notFindNextOpposite = true;
 		while (notFindNextOpposite) {
 			/* if cannot find any vertex to extend, petitioning finishes! */
-			if (this.oppositeGray.isEmpty())
+			if (this.oppositeFrontier.isEmpty())
 				return true;
 
-			randomIndex = this.randomNext.nextInt(this.oppositeGray.size());
-			Vertex currentNode = this.oppositeGray.get(randomIndex);
+			Vertex currentNode = this.oppositeFrontier.next(this.randomNext);
 
 			cntToBeGray = 0;
 			for (Vertex nextNode : currentNode.getAllNeighbors()) {
-				if (this.neutralVertexMap.containsKey(nextNode.getVertexID())) {
-					this.oppositeGray.add(nextNode);
-					this.neutralVertexMap.remove(nextNode.getVertexID());
+				if (this.isNeutral(nextNode)) {
+					this.oppositeFrontier.add(nextNode);
+					this.removeFromNeutral(nextNode, false);
 					++cntToBeGray;
 
 					if (Constants.SEP_DEBUG) {
@@ -553,8 +427,8 @@ public class GraphPartitioning {
 				}
 			}
 			if (cntToBeGray == 0) {
-				this.oppositeBlack.add(currentNode);
-				this.oppositeGray.remove(currentNode);
+				this.addToOppositeBlack(currentNode);
+				this.oppositeFrontier.finish(currentNode);
 			} else {
 				notFindNextOpposite = false;
 			}
@@ -572,13 +446,13 @@ public class GraphPartitioning {
 		boolean isSeparator, notFindNextNode = true;
 		while (notFindNextNode) {
 			/* if cannot find any vertex to extend, partitioning finishes! */
-			if (this.checkTermination(true))
+			if (this.wardenFrontier.isEmpty())
 				return true;
 
 			cntNextNode = 0;
 			isSeparator = false;
-			Vertex currentNode = this.getCurrentNode(true);
-			this.wardenBlack.add(currentNode);
+			Vertex currentNode = this.wardenFrontier.next(this.randomNext);
+			this.addToWardenBlack(currentNode);
 			for (Vertex nextNode : currentNode.getAllNeighbors()) {
 				/*
 				 * if a node in gray set is adjacent to opposite , it is a
@@ -587,11 +461,9 @@ public class GraphPartitioning {
 				if (neighborCheck(nextNode)) {
 					isSeparator = true;
 				}
-				if (this.neutralVertexMap.containsKey(nextNode.getVertexID())) {
-					nextNode.setNeighborSets(this.countBlackNeighborsNumber(
-							nextNode, true));
-					this.addToSearchingSpace(nextNode, true);
-					this.neutralVertexMap.remove(nextNode.getVertexID());
+				if (this.isNeutral(nextNode)) {
+					this.wardenFrontier.add(nextNode);
+					this.removeFromNeutral(nextNode, true);
 					++cntNextNode;
 
 					if (Constants.SEP_DEBUG) {
@@ -607,8 +479,8 @@ public class GraphPartitioning {
 			 * not zero, then finish this round.
 			 */
 			if (isSeparator) {
-				this.separatorSet.add(currentNode);
 				this.wardenBlack.remove(this.wardenBlack.size() - 1);
+				this.addToSeparators(currentNode);
 				if (cntNextNode != 0) {
 					notFindNextNode = false;
 				}
@@ -626,18 +498,16 @@ public class GraphPartitioning {
 		boolean notFindNextOpposite = true;
 		while (notFindNextOpposite) {
 			/* if cannot find any vertex to extend, petitioning finishes! */
-			if (this.checkTermination(false))
+			if (this.oppositeFrontier.isEmpty())
 				return true;
 
 			cntNextNode = 0;
-			Vertex currentNode = this.getCurrentNode(false);
-			this.oppositeBlack.add(currentNode);
+			Vertex currentNode = this.oppositeFrontier.next(this.randomNext);
+			this.addToOppositeBlack(currentNode);
 			for (Vertex nextNode : currentNode.getAllNeighbors()) {
-				if (this.neutralVertexMap.containsKey(nextNode.getVertexID())) {
-					nextNode.setNeighborSets(this.countBlackNeighborsNumber(
-							nextNode, false));
-					this.addToSearchingSpace(nextNode, false);
-					this.neutralVertexMap.remove(nextNode.getVertexID());
+				if (this.isNeutral(nextNode)) {
+					this.oppositeFrontier.add(nextNode);
+					this.removeFromNeutral(nextNode, false);
 					++cntNextNode;
 
 					if (Constants.SEP_DEBUG) {
@@ -647,7 +517,7 @@ public class GraphPartitioning {
 				}
 			}
 			if (cntNextNode == 0) {
-				this.oppositeBlack.add(currentNode);
+				this.addToOppositeBlack(currentNode);
 			} else {
 				notFindNextOpposite = false;
 			}
@@ -679,6 +549,8 @@ public class GraphPartitioning {
 				System.out.println("******");
 			}
 		}
+		/* the opposite side may run out of seeds before the warden frontier empties */
+		this.classifyWardenFrontier();
 	}
 
 	/**
@@ -693,46 +565,46 @@ public class GraphPartitioning {
 		boolean thisRoundDone = false;
 		while (!thisRoundDone) {
 			/* when the stack/queue is empty, partitioning is done. */
-			if (this.checkTermination(true)) {
+			if (this.wardenFrontier.isEmpty()) {
 				return true;
 			}
 
 			boolean currentSearchingSpaceEmpty = false;
 			Vertex nextNode = null;
-			Vertex currentNode = this.getCurrentNode(true);
+			Vertex currentNode = this.wardenFrontier.next(this.randomNext);
 
 			/* randomly select a neighbor for the next node */
 			do {
-				nextNode = currentNode.randomSelectANeighbor(this.randomNext);
+				nextNode = this.state.randomSelectANeighbor(currentNode, this.randomNext);
 				if (nextNode == null) {
 					currentSearchingSpaceEmpty = true;
 					break;
 				}
-			} while (!this.neutralVertexMap.containsKey(nextNode.getVertexID()));
+			} while (!this.isNeutral(nextNode));
 
 			/*
 			 * if cannot extend from the current node, pop it out of the stack,
 			 * and check the next node on the top of the stack
 			 */
 			if (currentSearchingSpaceEmpty) {
-				this.removeUnextendableNode(true);
+				this.wardenFrontier.finish(currentNode);
 				/*
 				 * check if current is a separator, and put it in the right
 				 * place
 				 */
 				if (separatorCheck(currentNode)) {
-					this.separatorSet.add(currentNode);
+					this.addToSeparators(currentNode);
 
 					if (Constants.SEP_DEBUG) {
 						System.out.println("@dfs add separator "
 								+ currentNode.getVertexID());
 					}
 				} else {
-					this.wardenBlack.add(currentNode);
+					this.addToWardenBlack(currentNode);
 				}
 			} else {
-				this.neutralVertexMap.remove(nextNode.getVertexID());
-				this.addToSearchingSpace(nextNode, true);
+				this.removeFromNeutral(nextNode, true);
+				this.wardenFrontier.add(nextNode);
 				thisRoundDone = true;
 
 				if (Constants.SEP_DEBUG) {
@@ -751,29 +623,29 @@ public class GraphPartitioning {
 		boolean thisRoundDone = false;
 		/* if the stack is empty, needs to select next random seed */
 		while (!thisRoundDone) {
-			if (this.checkTermination(false)) {
+			if (this.oppositeFrontier.isEmpty()) {
 				return true;
 			}
 
 			boolean currentSearchingSpaceEmpty = false;
 			Vertex nextNode = null;
-			Vertex currentNode = this.getCurrentNode(false);
+			Vertex currentNode = this.oppositeFrontier.next(this.randomNext);
 
 			/* randomly select a neighbor for the next node */
 			do {
-				nextNode = currentNode.randomSelectANeighbor(this.randomNext);
+				nextNode = this.state.randomSelectANeighbor(currentNode, this.randomNext);
 				if (nextNode == null) {
 					currentSearchingSpaceEmpty = true;
 					break;
 				}
-			} while (!this.neutralVertexMap.containsKey(nextNode.getVertexID()));
+			} while (!this.isNeutral(nextNode));
 
 			if (currentSearchingSpaceEmpty) {
-				this.removeUnextendableNode(false);
-				this.oppositeBlack.add(currentNode);
+				this.oppositeFrontier.finish(currentNode);
+				this.addToOppositeBlack(currentNode);
 			} else {
-				this.neutralVertexMap.remove(nextNode.getVertexID());
-				this.addToSearchingSpace(nextNode, false);
+				this.removeFromNeutral(nextNode, false);
+				this.oppositeFrontier.add(nextNode);
 				thisRoundDone = true;
 
 				if (Constants.SEP_DEBUG) {
@@ -785,220 +657,6 @@ public class GraphPartitioning {
 		return false;
 	}
 
-	/**
-	 * check whether the search finishes, if the set is empty, then search is
-	 * done.
-	 * 
-	 * @param wardenShore
-	 * @return true, if search is done; false, if not
-	 */
-	private boolean checkTermination(boolean wardenShore) {
-		if (wardenShore) {
-			if (this.wardenMode.equalsIgnoreCase(GraphPartitioning.DFS_MODE)) {
-				if (this.wardenStack.empty())
-					return true;
-			} else if (this.wardenMode
-					.equalsIgnoreCase(GraphPartitioning.BFS_MODE)) {
-				if (this.wardenQueue.isEmpty())
-					return true;
-			} else if (this.wardenMode
-					.equalsIgnoreCase(GraphPartitioning.INWARD_MODE)) {
-				if (this.wardenInwardPriorityQueue.isEmpty())
-					return true;
-			} else if (this.wardenMode
-					.equalsIgnoreCase(GraphPartitioning.OUTWARD_MODE)) {
-				if (this.wardenOutwardPriorityQueue.isEmpty())
-					return true;
-			} else if (this.wardenMode
-					.equalsIgnoreCase(GraphPartitioning.DEGREE_MODE)) {
-				if (this.wardenDegreePriorityQueue.isEmpty())
-					return true;
-			} else {
-				/* invalid mode */
-			}
-		} else {
-			if (this.oppositeMode.equalsIgnoreCase(GraphPartitioning.DFS_MODE)) {
-				if (this.oppositeStack.empty())
-					return true;
-			} else if (this.oppositeMode
-					.equalsIgnoreCase(GraphPartitioning.BFS_MODE)) {
-				if (this.oppositeQueue.isEmpty())
-					return true;
-			} else if (this.oppositeMode
-					.equalsIgnoreCase(GraphPartitioning.INWARD_MODE)) {
-				if (this.oppositeInwardPriorityQueue.isEmpty())
-					return true;
-			} else if (this.oppositeMode
-					.equalsIgnoreCase(GraphPartitioning.OUTWARD_MODE)) {
-				if (this.oppositeOutwardPriorityQueue.isEmpty())
-					return true;
-			} else if (this.oppositeMode
-					.equalsIgnoreCase(GraphPartitioning.DEGREE_MODE)) {
-				if (this.oppositeDegreePriorityQueue.isEmpty())
-					return true;
-			} else {
-				/* invalid mode */
-			}
-		}
-		return false;
-	}
-
-	/**
-	 * get the node to be extended in this round based on the searching mode. if
-	 * dfs, get from the stack; if bfs, get from the queue.
-	 * 
-	 * @param wardenShore
-	 * @return
-	 */
-	private Vertex getCurrentNode(boolean wardenShore) {
-		if (wardenShore) {
-			if (this.wardenMode.equalsIgnoreCase(GraphPartitioning.DFS_MODE)) {
-				return this.wardenStack.peek();
-			} else if (this.wardenMode
-					.equalsIgnoreCase(GraphPartitioning.BFS_MODE)) {
-				return this.wardenQueue.peek();
-			} else if (this.wardenMode
-					.equalsIgnoreCase(GraphPartitioning.INWARD_MODE)) {
-				int updateCnt;
-				Vertex currentNode = this.wardenInwardPriorityQueue.poll();
-				while (currentNode.getNumberOfBlackNeighbors() != (updateCnt = this
-						.countBlackNeighborsNumber(currentNode, true))) {
-					currentNode.setNeighborSets(updateCnt);
-					this.wardenInwardPriorityQueue.add(currentNode);
-					currentNode = this.wardenInwardPriorityQueue.poll();
-				}
-				return currentNode;
-			} else if (this.wardenMode
-					.equalsIgnoreCase(GraphPartitioning.OUTWARD_MODE)) {
-				int updateCnt;
-				Vertex currentNode = this.wardenOutwardPriorityQueue.poll();
-				while (currentNode.getNumberOfBlackNeighbors() != (updateCnt = this
-						.countBlackNeighborsNumber(currentNode, true))) {
-					currentNode.setNeighborSets(updateCnt);
-					this.wardenOutwardPriorityQueue.add(currentNode);
-					currentNode = this.wardenOutwardPriorityQueue.poll();
-				}
-				return currentNode;
-			} else if (this.wardenMode
-					.equalsIgnoreCase(GraphPartitioning.DEGREE_MODE)) {
-				return this.wardenDegreePriorityQueue.poll();
-			} else {
-				/* invalid mode */
-			}
-		} else {
-			if (this.oppositeMode.equalsIgnoreCase(GraphPartitioning.DFS_MODE)) {
-				return this.oppositeStack.peek();
-			} else if (this.oppositeMode
-					.equalsIgnoreCase(GraphPartitioning.BFS_MODE)) {
-				return this.oppositeQueue.peek();
-			}
-			if (this.oppositeMode
-					.equalsIgnoreCase(GraphPartitioning.INWARD_MODE)) {
-				int updateCnt;
-				Vertex currentNode = this.oppositeInwardPriorityQueue.poll();
-				while (currentNode.getNumberOfBlackNeighbors() != (updateCnt = this
-						.countBlackNeighborsNumber(currentNode, true))) {
-					currentNode.setNeighborSets(updateCnt);
-					this.oppositeInwardPriorityQueue.add(currentNode);
-					currentNode = this.oppositeInwardPriorityQueue.poll();
-				}
-				return currentNode;
-			} else if (this.oppositeMode
-					.equalsIgnoreCase(GraphPartitioning.OUTWARD_MODE)) {
-				int updateCnt;
-				Vertex currentNode = this.oppositeOutwardPriorityQueue.poll();
-				while (currentNode.getNumberOfBlackNeighbors() != (updateCnt = this
-						.countBlackNeighborsNumber(currentNode, true))) {
-					currentNode.setNeighborSets(updateCnt);
-					this.oppositeOutwardPriorityQueue.add(currentNode);
-					currentNode = this.oppositeOutwardPriorityQueue.poll();
-				}
-				return currentNode;
-			} else if (this.oppositeMode
-					.equalsIgnoreCase(GraphPartitioning.DEGREE_MODE)) {
-				return this.oppositeDegreePriorityQueue.poll();
-			} else {
-				/* invalid mode */
-			}
-		}
-		return null;
-	}
-
-	/**
-	 * when a node is not extendible, ie, it cannot do dfs or bfs from its
-	 * adjacent node, then remove it from stack or queue.
-	 * 
-	 * @param wardenShore
-	 */
-	private void removeUnextendableNode(boolean wardenShore) {
-		if (wardenShore) {
-			if (this.wardenMode.equalsIgnoreCase(GraphPartitioning.DFS_MODE)) {
-				this.wardenStack.pop();
-			} else if (this.wardenMode
-					.equalsIgnoreCase(GraphPartitioning.BFS_MODE)) {
-				this.wardenQueue.poll();
-			} else {
-				/* invalid mode */
-			}
-		} else {
-			if (this.oppositeMode.equalsIgnoreCase(GraphPartitioning.DFS_MODE)) {
-				this.oppositeStack.pop();
-			} else if (this.oppositeMode
-					.equalsIgnoreCase(GraphPartitioning.BFS_MODE)) {
-				this.oppositeQueue.poll();
-			} else {
-				/* invalid mode */
-			}
-		}
-	}
-
-	/**
-	 * put the next node into corresponding search space, either the stack or
-	 * the queue based on the searching type.
-	 * 
-	 * @param nextNode
-	 * @param wardenShore
-	 */
-	private void addToSearchingSpace(Vertex nextNode, boolean wardenShore) {
-		if (wardenShore) {
-			if (this.wardenMode.equalsIgnoreCase(GraphPartitioning.DFS_MODE)) {
-				this.wardenStack.push(nextNode);
-			} else if (this.wardenMode
-					.equalsIgnoreCase(GraphPartitioning.BFS_MODE)) {
-				this.wardenQueue.add(nextNode);
-			} else if (this.wardenMode
-					.equalsIgnoreCase(GraphPartitioning.INWARD_MODE)) {
-				this.wardenInwardPriorityQueue.add(nextNode);
-			} else if (this.wardenMode
-					.equalsIgnoreCase(GraphPartitioning.OUTWARD_MODE)) {
-				this.wardenOutwardPriorityQueue.add(nextNode);
-			} else if (this.wardenMode
-					.equalsIgnoreCase(GraphPartitioning.DEGREE_MODE)) {
-				this.wardenDegreePriorityQueue.add(nextNode);
-			} else {
-				/* invalid mode */
-			}
-		} else {
-			if (this.oppositeMode.equalsIgnoreCase(GraphPartitioning.DFS_MODE)) {
-				this.oppositeStack.push(nextNode);
-			} else if (this.oppositeMode
-					.equalsIgnoreCase(GraphPartitioning.BFS_MODE)) {
-				this.oppositeQueue.add(nextNode);
-			} else if (this.oppositeMode
-					.equalsIgnoreCase(GraphPartitioning.INWARD_MODE)) {
-				this.oppositeInwardPriorityQueue.add(nextNode);
-			} else if (this.oppositeMode
-					.equalsIgnoreCase(GraphPartitioning.OUTWARD_MODE)) {
-				this.oppositeOutwardPriorityQueue.add(nextNode);
-			} else if (this.oppositeMode
-					.equalsIgnoreCase(GraphPartitioning.DEGREE_MODE)) {
-				this.oppositeDegreePriorityQueue.add(nextNode);
-			} else {
-				/* invalid mode */
-			}
-		}
-	}
-
 	/**
 	 * pre assumption is that the given node is a part of warden set, if one of
 	 * its neighbor is in the opposite shore, it is a separator. and return
@@ -1009,13 +667,7 @@ public class GraphPartitioning {
 	 */
 	private boolean separatorCheck(Vertex vertex) {
 		for (Vertex neighbor : vertex.getAllNeighbors()) {
-			if (this.oppositeGray.contains(neighbor)
-					|| this.oppositeBlack.contains(neighbor)
-					|| this.oppositeStack.contains(neighbor)
-					|| this.oppositeQueue.contains(neighbor)
-					|| this.oppositeInwardPriorityQueue.contains(neighbor)
-					|| this.oppositeOutwardPriorityQueue.contains(neighbor)
-					|| this.oppositeDegreePriorityQueue.contains(neighbor)) {
+			if (this.state.isOpposite(neighbor)) {
 				return true;
 			}
 		}
@@ -1030,88 +682,7 @@ public class GraphPartitioning {
 	 */
 	private boolean neighborCheck(Vertex neighbor) {
 
-		if (this.oppositeInwardPriorityQueue.contains(neighbor)
-				|| this.oppositeOutwardPriorityQueue.contains(neighbor)
-				|| this.oppositeDegreePriorityQueue.contains(neighbor)
-				|| this.oppositeBlack.contains(neighbor)
-				|| this.oppositeGray.contains(neighbor)) {
-			return true;
-		} else {
-			return false;
-		}
-	}
-
-	/**
-	 * Select separators from warden gray set which must not be adjacent to
-	 * opposite gray or black
-	 * 
-	 * for random - random search
-	 */
-	private void checkWardenGray() {
-
-		for (Vertex gray : this.wardenGray) {
-			for (Vertex neighbor : gray.getAllNeighbors()) {
-				if (this.oppositeGray.contains(neighbor)
-						|| this.oppositeBlack.contains(neighbor)) {
-					this.separatorSet.add(gray);
-					break;
-				}
-			}
-		}
-	}
-
-	/**
-	 * count the number of neighbors which are in the black warden set, which
-	 * the search is based on, then update for that node and add into the
-	 * priority queue
-	 * 
-	 * @param node
-	 */
-	private void priorityQueueAdd(Vertex node) {
-		int blackCnt = this.countBlackNeighborsNumber(node, true);
-		node.setNeighborSets(blackCnt);
-		if (this.wardenMode.equalsIgnoreCase(GraphPartitioning.INWARD_MODE)) {
-			this.wardenInwardPriorityQueue.add(node);
-		} else if (this.wardenMode
-				.equalsIgnoreCase(GraphPartitioning.OUTWARD_MODE)) {
-			this.wardenOutwardPriorityQueue.add(node);
-		} else if (this.wardenMode
-				.equalsIgnoreCase(GraphPartitioning.DEGREE_MODE)) {
-			this.wardenDegreePriorityQueue.add(node);
-		} else {
-			/* invalid mode, bfs and dfs have been added. */
-		}
-	}
-
-	/**
-	 * count the number of neighbor nodes which are in the black warden set.
-	 * 
-	 * @param Node
-	 * @return
-	 */
-	private int countBlackNeighborsNumber(Vertex node, boolean isWarden) {
-		int blackCnt = 0;
-		if (isWarden) {
-			for (Vertex neighbor : node.getAllNeighbors()) {
-				if (this.wardenBlack.contains(neighbor)
-						|| this.wardenSet.contains(neighbor)
-						|| this.separatorSet.contains(neighbor)) {
-					/*
-					 * black cnt include nodes in the black set as well as the
-					 * separator because these nodes cannot be extended any more
-					 */
-					++blackCnt;
-				}
-			}
-		} else {
-			for (Vertex neighbor : node.getAllNeighbors()) {
-				if (this.oppositeBlack.contains(neighbor)
-						|| this.separatorSet.contains(neighbor)) {
-					++blackCnt;
-				}
-			}
-		}
-		return blackCnt;
+		return this.state.isOpposite(neighbor);
 	}
 
 	/**
@@ -1120,26 +691,18 @@ public class GraphPartitioning {
 	 * 
 	 * for both random - random search and DFS - DFS search
 	 */
-	@SuppressWarnings("unchecked")
 	private void createWardenAdjacentSet() {
 		for (Vertex wardenVertex : this.wardenSet) {
 			for (Vertex wardenNeighbor : wardenVertex.getAllNeighbors()) {
-				if (!this.wardenSet.contains(wardenNeighbor)
-						&& !this.wardenGray.contains(wardenNeighbor)) {
-					/* create avaiable neighbor list for dfs search */
-					wardenNeighbor.createAvailableNeighborList();
-					this.wardenGray.add(wardenNeighbor);
-					this.wardenStack.push(wardenNeighbor);
-					this.wardenQueue.add(wardenNeighbor);
-					this.priorityQueueAdd(wardenNeighbor);
-
-					this.neutralVertexMap.remove(wardenNeighbor.getVertexID());
+				if (this.isNeutral(wardenNeighbor)) {
+					this.wardenFrontier.add(wardenNeighbor);
+
+					this.removeFromNeutral(wardenNeighbor, true);
 				}
 			}
 		}
 		/* initialize the initial searching space */
-		Collections.shuffle(this.wardenStack);
-		Collections.shuffle((List<Vertex>) this.wardenQueue);
+		this.wardenFrontier.shuffle(this.randomNext);
 	}
 
 	/**
@@ -1151,112 +714,20 @@ public class GraphPartitioning {
 	 */
 	private int randomSelectNextSeed() {
 		/* graph petitioning process finishes */
-		if (this.neutralVertexMap.size() == 0)
+		if (this.state.getNeutralCount() == 0)
 			return -1;
 
-		Object[] keyArray = this.neutralVertexMap.keySet().toArray();
-		int randomIndex = this.randomNext.nextInt(keyArray.length);
-		int randomVertex = (Integer) keyArray[randomIndex];
-		this.oppositeGray.add(this.neutralVertexMap.get(randomVertex));
-		this.oppositeBlack.add(this.neutralVertexMap.get(randomVertex));
-
-		this.oppositeStack.push(this.neutralVertexMap.get(randomVertex));
-		this.oppositeQueue.add(this.neutralVertexMap.get(randomVertex));
-		Vertex node = this.neutralVertexMap.get(randomVertex);
-		node.setNeighborSets(this.countBlackNeighborsNumber(node, false));
-		this.oppositeInwardPriorityQueue.add(node);
-		this.oppositeOutwardPriorityQueue.add(node);
-		this.oppositeDegreePriorityQueue.add(node);
-
-		this.neutralVertexMap.remove(randomVertex);
-		if (Constants.SEP_DEBUG) {
-			System.out.println("opposite RANDOM select " + randomVertex);
-		}
-
-		return 1;
-	}
-
-	/**
-	 * read data from the files, create a neutral vertex set then create a
-	 * warden vertex set which is not included in the neutral vertex set.
-	 * 
-	 * @param asRelFile
-	 * @param wardenFile
-	 * @throws IOException
-	 */
-	private void generateGraph(String wardenFile) throws IOException {
-
-		String pollString;
-		StringTokenizer pollToks;
-		int lhsASN, rhsASN, rel;
+		Vertex node = this.state.getNeutralVertex(this.randomNext
+				.nextInt(this.state.getNeutralCount()));
+		this.removeFromNeutral(node, false);
+		this.addToOppositeBlack(node);
+		this.oppositeFrontier.add(node);
 
 		if (Constants.SEP_DEBUG) {
-			System.out.println("as file " + Constants.AS_REL_FILE);
+			System.out.println("opposite RANDOM select " + node.getVertexID());
 		}
-		BufferedReader fBuff = new BufferedReader(new FileReader(
-				Constants.AS_REL_FILE));
-		while (fBuff.ready()) {
-			pollString = fBuff.readLine().trim();
-			if (Constants.SEP_DEBUG) {
-				System.out.println(pollString);
-			}
 
-			/*
-			 * ignore blanks
-			 */
-			if (pollString.length() == 0) {
-				continue;
-			}
-
-			/*
-			 * Ignore comments
-			 */
-			if (pollString.charAt(0) == '#') {
-				continue;
-			}
-
-			/*
-			 * Parse line
-			 */
-			pollToks = new StringTokenizer(pollString, "|");
-			lhsASN = Integer.parseInt(pollToks.nextToken());
-			rhsASN = Integer.parseInt(pollToks.nextToken());
-			rel = Integer.parseInt(pollToks.nextToken());
-
-			/*
-			 * create vertex object if we've never encountered it before and
-			 * create neighbor relation for both vertexes
-			 */
-
-			if (!this.neutralVertexMap.containsKey(lhsASN)) {
-				this.neutralVertexMap.put(lhsASN, new Vertex(lhsASN));
-			}
-			if (!this.neutralVertexMap.containsKey(rhsASN)) {
-				this.neutralVertexMap.put(rhsASN, new Vertex(rhsASN));
-			}
-			this.neutralVertexMap.get(lhsASN).addNeighbor(
-					this.neutralVertexMap.get(rhsASN));
-			this.neutralVertexMap.get(rhsASN).addNeighbor(
-					this.neutralVertexMap.get(lhsASN));
-		}
-		fBuff.close();
-		if (!Constants.SEP_DEBUG) {
-			System.out.println("Total amount of nodes: " + this.neutralVertexMap.size());
-		}
-		/*
-		 * read the warden AS file, add wardens into warden set
-		 */
-		System.out.println("wardenFile " + wardenFile);
-		fBuff = new BufferedReader(new FileReader(wardenFile));
-		while (fBuff.ready()) {
-			pollString = fBuff.readLine().trim();
-			if (pollString.length() > 0) {
-				int asn = Integer.parseInt(pollString);
-				this.wardenSet.add(this.neutralVertexMap.get(asn));
-				this.neutralVertexMap.remove(asn);
-			}
-		}
-		fBuff.close();
+		return 1;
 	}
 
 	/**
@@ -1266,33 +737,10 @@ public class GraphPartitioning {
 	 *         bugs in the code..
 	 */
 	private boolean passSeparatorTest() {
-		Set<Vertex> visitedSet = new HashSet<Vertex>();
-		Set<Vertex> wardenShore = new HashSet<Vertex>(this.getRedundantWardenShore());
-		Queue<Vertex> testQueue = new LinkedList<Vertex>();
-
-		for (Vertex warden : this.wardenSet) {
-			if (visitedSet.contains(warden))
-				continue;
-			testQueue.add(warden);
-			visitedSet.add(warden);
-			while (!testQueue.isEmpty()) {
-				Vertex currentNode = testQueue.poll();
-
-				for (Vertex nextNode : currentNode.getAllNeighbors()) {
-					if (visitedSet.contains(nextNode))
-						continue;
-
-					if (this.separatorSet.contains(nextNode)) {
-						visitedSet.add(nextNode);
-					} else if (wardenShore.contains(nextNode)) {
-						testQueue.add(nextNode);
-						visitedSet.add(nextNode);
-					} else {
-						System.out.println("Test Failed!!!");
-						return false;
-					}
-				}
-			}
+		SeparatorVerifier.Verdict verdict = this.verifier.verify(this.wardens, this.state);
+		if (!verdict.isPassed()) {
+			System.out.println("Test Failed!!! " + this.verifier.describe(verdict));
+			return false;
 		}
 		if (!Constants.SEP_DEBUG) {
 			System.out.println("Test Passed in Creating Separators..");
@@ -1304,58 +752,41 @@ public class GraphPartitioning {
 	 * remove the connected component of warden shore that do not contains any
 	 * wardens, and remove the separators that are adjacent to them and if they
 	 * are not adjacent to other warden shores?
+	 * 
+	 * the valid warden shore is what a bfs from all the wardens reaches without
+	 * crossing a separator, and the valid separators are the separators it
+	 * stops at, found in one pass over the warden components.
 	 */
 	private void removeRedundantComponents() {
-		// Set<Vertex> wardenShore = new HashSet<Vertex>(this.getWardenShore());
-		Set<Vertex> visitedSet = new HashSet<Vertex>();
-		boolean containsWarden;
-		Queue<Vertex> que = new LinkedList<Vertex>();
-		Set<Vertex> tempSet = new HashSet<Vertex>();
-		Set<Vertex> tempSeparatorSet = new HashSet<Vertex>();
-
 		if (!Constants.SEP_DEBUG) {
-			System.out.println("all components: " + this.separatorSet.size()
-					+ ", " + this.getRedundantWardenShore().size());
-		}
-		for (Vertex node : this.getRedundantWardenShore()) {
-			if (!visitedSet.contains(node)) {
-				/* reset helper variables */
-				containsWarden = false;
-				tempSet.clear();
-				tempSeparatorSet.clear();
-
-				visitedSet.add(node);
-				que.add(node);
-				tempSet.add(node);
-				/* bfs search */
-				while (!que.isEmpty()) {
-					Vertex currentNode = que.poll();
-					if (this.wardenSet.contains(currentNode)) {
-						containsWarden = true;
+			System.out.println("all components: " + this.state.getSeparatorCount()
+					+ ", " + this.state.getWardenShoreCount());
+		}
+		int head = 0;
+		int tail = 0;
+		for (int warden : this.wardens) {
+			if (!this.validWardenShore.get(warden)) {
+				this.validWardenShore.set(warden);
+				this.componentQueue[tail++] = warden;
+			}
+		}
+		/* bfs search */
+		while (head < tail) {
+			int current = this.componentQueue[head++];
+			for (int slot = this.graph.getNeighborStart(current); slot < this.graph.getNeighborEnd(current); ++slot) {
+				int neighbor = this.graph.getNeighbor(slot);
+				if (this.state.isSeparator(neighbor)) {
+					if (!this.validSeparators.get(neighbor)) {
+						this.validSeparators.set(neighbor);
+						++this.validSeparatorSize;
 					}
-					for (Vertex neighbor : currentNode.getAllNeighbors()) {
-						if (!visitedSet.contains(neighbor)) {
-							visitedSet.add(neighbor);
-							if (this.separatorSet.contains(neighbor)) {
-								tempSeparatorSet.add(neighbor);
-							} else {
-								que.add(neighbor);
-								tempSet.add(neighbor);
-							}
-						}
-					}
-				}
-				/*
-				 * add the components contain at least one warden into the final
-				 * warden shore, and add their separators into the final
-				 * separator set
-				 */
-				if (containsWarden) {
-					this.validSeparators.addAll(tempSeparatorSet);
-					this.validWardenShore.addAll(tempSet);
+				} else if (!this.validWardenShore.get(neighbor)) {
+					this.validWardenShore.set(neighbor);
+					this.componentQueue[tail++] = neighbor;
 				}
 			}
 		}
+		this.validWardenShoreSize = tail;
 	}
 
 	/**
@@ -1363,80 +794,58 @@ public class GraphPartitioning {
 	 * 
 	 * @return
 	 */
-	public Set<Vertex> getWardens() {
-		return this.wardenSet;
+	public CSRGraph getGraph() {
+		return this.graph;
 	}
 
-	/**
-	 * fetch the vertexes in the black warden set, wardens are not included.
-	 * remove redundant operation is done.
-	 * 
-	 * @return
-	 */
-	public Set<Vertex> getWardenShore() {
-		return this.validWardenShore;
+	public Set<Vertex> getWardens() {
+		return this.wardenSet;
 	}
 
 	/**
-	 * fetch the vertexes in the black warden set, wardens are not included.
-	 * this set is very redundant.
-	 * 
-	 * @return
+	 * @return the size of the warden shore, wardens included, after the
+	 *         components without wardens are removed
 	 */
-	public Set<Vertex> getRedundantWardenShore() {
-		Set<Vertex> wardenShore = new HashSet<Vertex>();
-		wardenShore.addAll(this.wardenBlack);
-		wardenShore.addAll(this.wardenSet);
-		/* for random case */
-		wardenShore.addAll(this.wardenGray);
-		wardenShore.removeAll(this.separatorSet);
-		return wardenShore;
-	}
-
-	public Set<Vertex> getSeparators() {
-		return this.separatorSet;
+	public int getWardenShoreSize() {
+		return this.validWardenShoreSize;
 	}
 
 	public int getSeparatorSize() {
-		return this.validSeparators.size();
+		return this.validSeparatorSize;
 	}
 
-	public Set<Vertex> getOppositeShore() {
-		Set<Vertex> oppositeShore = new HashSet<Vertex>(
-				this.neutralVertexCopy.values());
-		oppositeShore.removeAll(this.separatorSet);
-		oppositeShore.removeAll(this.getRedundantWardenShore());
-
-		return oppositeShore;
+	/**
+	 * @return the view of the shores and separators of the last trial, it is
+	 *         shared and follows the next trials of this engine
+	 */
+	public PartitionResult getResult() {
+		return this.result;
 	}
 
-	private void printResults(boolean singleRun) throws IOException {
+	/**
+	 * @return the view of the last trial after the components without
+	 *         wardens are removed: the valid warden shore and the valid
+	 *         separators, every other vertex is on the opposite shore. It is
+	 *         shared and follows the next trials of this engine.
+	 */
+	public SeparatorVerifier.Partition getPrunedResult() {
+		return this.prunedResult;
+	}
 
-		if (!singleRun) {
-			this.separatorOut.write(this.validSeparators.size() + "\n");
-			this.wardenOut.write(this.validWardenShore.size() + "\n");
-		}
+	private void printResults() {
 		if (Constants.SEP_DEBUG) {
-			System.out.println("separator size: " + this.validSeparators.size()
-					+ ", warden size: " + this.validWardenShore.size());
+			System.out.println("separator size: " + this.getSeparatorSize()
+					+ ", warden size: " + this.getWardenShoreSize());
 		}
 		if (Constants.SEP_DEBUG) {
 			System.out.println("\n###Separators:");
 			for (Vertex v : this.separatorSet) {
 				System.out.print(v.getVertexID() + ", ");
 			}
-			System.out.println("\nWarden Gray:");
-			for (Vertex v : this.wardenGray) {
-				System.out.print(v.getVertexID() + ", ");
-			}
 			System.out.println("\nWarden Black:");
 			for (Vertex v : this.wardenBlack) {
 				System.out.print(v.getVertexID() + ", ");
 			}
-			System.out.println("\nOpposite Gray:");
-			for (Vertex v : this.oppositeGray) {
-				System.out.print(v.getVertexID() + ", ");
-			}
 			System.out.println("\nOpposite Black:");
 			for (Vertex v : this.oppositeBlack) {
 				System.out.print(v.getVertexID() + ", ");
@@ -0,0 +1,313 @@
+package sim;
+
+import java.util.Arrays;
+
+import graph.CSRGraph;
+
+/**
+ * Exact minimum vertex separator between the wardens and an opposite set, as
+ * a maximum flow on the vertex split graph (Dinic).
+ *
+ * Every vertex v becomes an edge in(v) -> out(v) of capacity 1, every link
+ * two edges out(u) -> in(v) of unbounded capacity. The wardens hang off a
+ * super source and the opposite vertexes off a super sink, their own split
+ * edges are unbounded so neither can be cut. By Menger's theorem the maximum
+ * flow is the size of the smallest separator, and the vertexes whose split
+ * edge leaves the part of the residual graph reachable from the source form
+ * one.
+ *
+ * The opposite set is either given, or every vertex more than a number of
+ * hops away from the wardens, the separator then lies within that radius.
+ * The network lives in primitive arrays and is rebuilt by every compute call.
+ */
+public class MinimumSeparator implements SeparatorVerifier.Partition {
+
+	private static final byte WARDEN_SHORE = 0;
+	private static final byte SEPARATOR = 1;
+	private static final byte OPPOSITE_SHORE = 2;
+	private static final int NONE = -1;
+
+	private final Topology topology;
+	private final CSRGraph graph;
+	/** larger than any flow, a cut never goes through it */
+	private final int unbounded;
+	private final int source;
+	private final int sink;
+
+	/** edges in linked lists per node, the reverse of edge e is e ^ 1 */
+	private final int[] firstEdges;
+	private final int[] nextEdges;
+	private final int[] heads;
+	private final int[] capacities;
+	private int edgeCount;
+
+	/** bfs levels of the current phase, the path and next edge of the dfs */
+	private final int[] levels;
+	private final int[] currentEdges;
+	private final int[] path;
+	private final int[] queue;
+
+	/** side of every vertex after the last compute call */
+	private final byte[] sides;
+	private int separatorSize;
+	private int wardenShoreSize;
+
+	public MinimumSeparator(Topology topology) {
+		this.topology = topology;
+		this.graph = topology.getGraph();
+		int vertexCount = this.graph.getVertexCount();
+		int nodeCount = 2 * vertexCount + 2;
+		this.unbounded = vertexCount + 1;
+		this.source = 2 * vertexCount;
+		this.sink = 2 * vertexCount + 1;
+
+		/* split edges, links, and at most one terminal edge per vertex */
+		int edgeCapacity = 2 * (2 * vertexCount + this.graph.getSlotCount());
+		this.firstEdges = new int[nodeCount];
+		this.nextEdges = new int[edgeCapacity];
+		this.heads = new int[edgeCapacity];
+		this.capacities = new int[edgeCapacity];
+
+		this.levels = new int[nodeCount];
+		this.currentEdges = new int[nodeCount];
+		this.path = new int[nodeCount];
+		this.queue = new int[nodeCount];
+		this.sides = new byte[vertexCount];
+	}
+
+	/**
+	 * separate the wardens from every vertex more than radius hops away
+	 * from all of them
+	 *
+	 * @param radius
+	 *            at least 1
+	 * @return the size of the minimum separator
+	 * @throws IllegalArgumentException
+	 *             if the radius is less than 1, the neighbors of the wardens
+	 *             would be opposite vertexes and no separator exists
+	 */
+	public int computeForRadius(int radius) {
+		if (radius < 1) {
+			throw new IllegalArgumentException("radius " + radius + " is less than 1");
+		}
+		int vertexCount = this.graph.getVertexCount();
+		int[] distances = new int[vertexCount];
+		Arrays.fill(distances, MinimumSeparator.NONE);
+		int head = 0;
+		int tail = 0;
+		for (int i = 0; i < this.topology.getWardenCount(); ++i) {
+			int warden = this.topology.getWarden(i);
+			distances[warden] = 0;
+			this.queue[tail++] = warden;
+		}
+		while (head < tail) {
+			int current = this.queue[head++];
+			for (int slot = this.graph.getNeighborStart(current); slot < this.graph.getNeighborEnd(current); ++slot) {
+				int neighbor = this.graph.getNeighbor(slot);
+				if (distances[neighbor] == MinimumSeparator.NONE) {
+					distances[neighbor] = distances[current] + 1;
+					this.queue[tail++] = neighbor;
+				}
+			}
+		}
+
+		/* vertexes the wardens cannot reach at all need no separating */
+		boolean[] opposite = new boolean[vertexCount];
+		for (int v = 0; v < vertexCount; ++v) {
+			opposite[v] = distances[v] > radius;
+		}
+		return this.compute(opposite);
+	}
+
+	/**
+	 * separate the wardens from the given opposite vertexes
+	 *
+	 * @param oppositeVertices
+	 * @return the size of the minimum separator, -1 if a warden is an
+	 *         opposite vertex or adjacent to one, so that no separator exists
+	 */
+	public int computeForOpposite(int[] oppositeVertices) {
+		boolean[] opposite = new boolean[this.graph.getVertexCount()];
+		for (int v : oppositeVertices) {
+			opposite[v] = true;
+		}
+		for (int i = 0; i < this.topology.getWardenCount(); ++i) {
+			int warden = this.topology.getWarden(i);
+			if (opposite[warden]) {
+				return -1;
+			}
+			for (int slot = this.graph.getNeighborStart(warden); slot < this.graph.getNeighborEnd(warden); ++slot) {
+				if (opposite[this.graph.getNeighbor(slot)]) {
+					return -1;
+				}
+			}
+		}
+		return this.compute(opposite);
+	}
+
+	/**
+	 * @param opposite
+	 *            no warden is opposite or adjacent to an opposite vertex
+	 * @return the size of the minimum separator
+	 */
+	private int compute(boolean[] opposite) {
+		this.buildNetwork(opposite);
+		int flow = 0;
+		while (this.buildLevels()) {
+			System.arraycopy(this.firstEdges, 0, this.currentEdges, 0, this.firstEdges.length);
+			int augmented;
+			while ((augmented = this.augment()) > 0) {
+				flow += augmented;
+			}
+		}
+		this.classify();
+		return flow;
+	}
+
+	private void buildNetwork(boolean[] opposite) {
+		Arrays.fill(this.firstEdges, MinimumSeparator.NONE);
+		this.edgeCount = 0;
+		for (int v = 0; v < this.graph.getVertexCount(); ++v) {
+			boolean terminal = this.topology.isWarden(v) || opposite[v];
+			this.addEdge(2 * v, 2 * v + 1, terminal ? this.unbounded : 1);
+			for (int slot = this.graph.getNeighborStart(v); slot < this.graph.getNeighborEnd(v); ++slot) {
+				this.addEdge(2 * v + 1, 2 * this.graph.getNeighbor(slot), this.unbounded);
+			}
+			if (this.topology.isWarden(v)) {
+				this.addEdge(this.source, 2 * v, this.unbounded);
+			} else if (opposite[v]) {
+				this.addEdge(2 * v + 1, this.sink, this.unbounded);
+			}
+		}
+	}
+
+	/**
+	 * add an edge and its residual reverse edge
+	 */
+	private void addEdge(int from, int to, int capacity) {
+		this.heads[this.edgeCount] = to;
+		this.capacities[this.edgeCount] = capacity;
+		this.nextEdges[this.edgeCount] = this.firstEdges[from];
+		this.firstEdges[from] = this.edgeCount++;
+
+		this.heads[this.edgeCount] = from;
+		this.capacities[this.edgeCount] = 0;
+		this.nextEdges[this.edgeCount] = this.firstEdges[to];
+		this.firstEdges[to] = this.edgeCount++;
+	}
+
+	/**
+	 * bfs over the residual graph from the source
+	 *
+	 * @return true if the sink is still reachable
+	 */
+	private boolean buildLevels() {
+		Arrays.fill(this.levels, MinimumSeparator.NONE);
+		int head = 0;
+		int tail = 0;
+		this.levels[this.source] = 0;
+		this.queue[tail++] = this.source;
+		while (head < tail) {
+			int node = this.queue[head++];
+			for (int edge = this.firstEdges[node]; edge != MinimumSeparator.NONE; edge = this.nextEdges[edge]) {
+				int next = this.heads[edge];
+				if (this.capacities[edge] > 0 && this.levels[next] == MinimumSeparator.NONE) {
+					this.levels[next] = this.levels[node] + 1;
+					this.queue[tail++] = next;
+				}
+			}
+		}
+		return this.levels[this.sink] != MinimumSeparator.NONE;
+	}
+
+	/**
+	 * find one source to sink path along increasing levels with an iterative
+	 * dfs and push its bottleneck through it. Dead ends are dropped from the
+	 * level graph and the next edge of every node is remembered, so a phase
+	 * scans every edge once besides the paths themselves.
+	 *
+	 * @return the pushed flow, 0 if the level graph has no path left
+	 */
+	private int augment() {
+		int depth = 0;
+		int node = this.source;
+		while (node != this.sink) {
+			int edge = this.currentEdges[node];
+			while (edge != MinimumSeparator.NONE && (this.capacities[edge] == 0
+					|| this.levels[this.heads[edge]] != this.levels[node] + 1)) {
+				edge = this.nextEdges[edge];
+			}
+			this.currentEdges[node] = edge;
+			if (edge != MinimumSeparator.NONE) {
+				this.path[depth++] = edge;
+				node = this.heads[edge];
+			} else {
+				/* retreat and skip the edge that led here */
+				this.levels[node] = MinimumSeparator.NONE;
+				if (depth == 0) {
+					return 0;
+				}
+				edge = this.path[--depth];
+				node = this.heads[edge ^ 1];
+				this.currentEdges[node] = this.nextEdges[edge];
+			}
+		}
+
+		int bottleneck = this.unbounded;
+		for (int i = 0; i < depth; ++i) {
+			bottleneck = Math.min(bottleneck, this.capacities[this.path[i]]);
+		}
+		for (int i = 0; i < depth; ++i) {
+			this.capacities[this.path[i]] -= bottleneck;
+			this.capacities[this.path[i] ^ 1] += bottleneck;
+		}
+		return bottleneck;
+	}
+
+	/**
+	 * the nodes reachable from the source in the residual graph are the
+	 * source side of a minimum cut
+	 */
+	private void classify() {
+		this.buildLevels();
+		this.separatorSize = 0;
+		this.wardenShoreSize = 0;
+		for (int v = 0; v < this.sides.length; ++v) {
+			if (this.levels[2 * v + 1] != MinimumSeparator.NONE) {
+				this.sides[v] = MinimumSeparator.WARDEN_SHORE;
+				++this.wardenShoreSize;
+			} else if (this.levels[2 * v] != MinimumSeparator.NONE) {
+				this.sides[v] = MinimumSeparator.SEPARATOR;
+				++this.separatorSize;
+			} else {
+				this.sides[v] = MinimumSeparator.OPPOSITE_SHORE;
+			}
+		}
+	}
+
+	@Override
+	public boolean isSeparator(int vertex) {
+		return this.sides[vertex] == MinimumSeparator.SEPARATOR;
+	}
+
+	/**
+	 * @return true for the wardens and the vertexes they reach without
+	 *         crossing the separator
+	 */
+	@Override
+	public boolean isWardenShore(int vertex) {
+		return this.sides[vertex] == MinimumSeparator.WARDEN_SHORE;
+	}
+
+	public int getSeparatorSize() {
+		return this.separatorSize;
+	}
+
+	public int getWardenShoreSize() {
+		return this.wardenShoreSize;
+	}
+
+	public int getOppositeShoreSize() {
+		return this.sides.length - this.separatorSize - this.wardenShoreSize;
+	}
+}
@@ -0,0 +1,469 @@
+package sim;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import graph.CSRGraph;
+
+/**
+ * Multilevel separator engine for large graphs.
+ *
+ * The graph is coarsened by heavy edge matching until it is small: matched
+ * vertexes are contracted into one, the weight of a coarse link counts the
+ * fine links it stands for. Wardens are never matched, so every level keeps
+ * them as single vertexes. GraphPartitioning finds a separator of the
+ * coarsest graph, which is then projected back one level at a time, every
+ * fine vertex taking the side of its coarse vertex, and refined on every
+ * level: separator vertexes with a single adjacent shore join it, then the
+ * swaps of OptimizeSeparator run.
+ *
+ * A projected separator is still a separator: a fine link between the two
+ * shores would have been a coarse link between them. The refinement counts
+ * vertexes, not weights, so the coarse levels only approximate the sizes of
+ * the finest level.
+ */
+public class MultilevelPartitioning {
+
+	private static final byte WARDEN_SHORE = 0;
+	private static final byte SEPARATOR = 1;
+	private static final byte OPPOSITE_SHORE = 2;
+	private static final int NONE = -1;
+	/** stop coarsening once a level keeps more of its vertexes than this */
+	private static final double MIN_SHRINK = 0.95;
+	private static final int MAX_LEVELS = 40;
+
+	private final Topology topology;
+	private final int coarsestSize;
+	/** from the input graph (level 0) to the coarsest one */
+	private final List<Level> levels;
+	/** side of every vertex of the input graph after the last run */
+	private byte[] sides;
+	private int separatorSize;
+	private int wardenShoreSize;
+
+	/**
+	 * @param topology
+	 * @param coarsestSize
+	 *            coarsening stops at this number of vertexes
+	 */
+	public MultilevelPartitioning(Topology topology, int coarsestSize) {
+		this.topology = topology;
+		this.coarsestSize = coarsestSize;
+		this.levels = new ArrayList<Level>();
+	}
+
+	/**
+	 * coarsen, partition the coarsest level, then project and refine down to
+	 * the input graph
+	 *
+	 * @param wardenMode
+	 * @param oppositeMode
+	 * @param wardenOptMode
+	 * @param oppositeOptMode
+	 * @param threshold
+	 *            maximum number of swaps of every refinement
+	 * @param seed
+	 * @return false if a level fails the separator test
+	 * @throws IOException
+	 */
+	public boolean run(String wardenMode, String oppositeMode, String wardenOptMode, String oppositeOptMode,
+			int threshold, long seed) throws IOException {
+		SplittableRandom random = new SplittableRandom(seed);
+		this.coarsen(random);
+		Level coarsest = this.levels.get(this.levels.size() - 1);
+
+		GraphPartitioning partitionEngine = new GraphPartitioning(new Topology(coarsest.graph, coarsest.wardens));
+		partitionEngine.setModes(wardenMode, oppositeMode);
+		if (!partitionEngine.runTrial(random.nextLong())) {
+			return false;
+		}
+		/* the warden shore components without wardens are on the opposite shore already */
+		byte[] levelSides = MultilevelPartitioning.toSides(partitionEngine.getPrunedResult(),
+				coarsest.graph.getVertexCount());
+
+		for (int l = this.levels.size() - 1; l >= 0; --l) {
+			Level level = this.levels.get(l);
+			if (l < this.levels.size() - 1) {
+				levelSides = MultilevelPartitioning.project(level, levelSides);
+			}
+			MultilevelPartitioning.thin(level.graph, levelSides);
+			int projected = MultilevelPartitioning.count(levelSides, MultilevelPartitioning.SEPARATOR);
+
+			OptimizeSeparator optimizeEngine = new OptimizeSeparator(level.graph, level.wardens,
+					new Sides(levelSides), wardenOptMode, oppositeOptMode, threshold, null);
+			if (!optimizeEngine.refine()) {
+				System.out.println("Level " + l + " failed the test.");
+				return false;
+			}
+			System.out.println("level " + l + ": " + level.graph.getVertexCount() + " vertexes, separator "
+					+ projected + " -> " + optimizeEngine.getSeparatorSize());
+			levelSides = MultilevelPartitioning.toSides(optimizeEngine.getPartition(), level.graph.getVertexCount());
+			if (Constants.TEST) {
+				int contact = MultilevelPartitioning.findShoreContact(level.graph, levelSides);
+				if (contact != MultilevelPartitioning.NONE) {
+					System.out.println("Level " + l + " failed the test, warden shore vertex " + contact
+							+ " is adjacent to the opposite shore.");
+					return false;
+				}
+			}
+		}
+
+		this.sides = levelSides;
+		this.separatorSize = MultilevelPartitioning.count(this.sides, MultilevelPartitioning.SEPARATOR);
+		this.wardenShoreSize = MultilevelPartitioning.count(this.sides, MultilevelPartitioning.WARDEN_SHORE);
+		return true;
+	}
+
+	/**
+	 * build the levels, from the input graph to the coarsest one
+	 */
+	private void coarsen(SplittableRandom random) {
+		this.levels.clear();
+		CSRGraph graph = this.topology.getGraph();
+		int[] vertexWeights = new int[graph.getVertexCount()];
+		Arrays.fill(vertexWeights, 1);
+		int[] edgeWeights = new int[graph.getSlotCount()];
+		Arrays.fill(edgeWeights, 1);
+		Level level = new Level(graph, this.topology.getWardens(), vertexWeights, edgeWeights);
+		this.levels.add(level);
+
+		/* no coarse vertex may outweigh its share of the coarsest level by much */
+		int maxVertexWeight = Math.max(2, 3 * graph.getVertexCount() / (2 * this.coarsestSize));
+		while (level.graph.getVertexCount() > this.coarsestSize && this.levels.size() < MultilevelPartitioning.MAX_LEVELS) {
+			Level coarser = this.contract(level, this.match(level, random, maxVertexWeight));
+			if (coarser.graph.getVertexCount() > MultilevelPartitioning.MIN_SHRINK * level.graph.getVertexCount()) {
+				level.coarseMap = null;
+				break;
+			}
+			this.levels.add(coarser);
+			level = coarser;
+		}
+		System.out.println("Coarsened into " + this.levels.size() + " levels, coarsest "
+				+ level.graph.getVertexCount() + " vertexes.");
+	}
+
+	/**
+	 * heavy edge matching in random order: every unmatched vertex takes its
+	 * unmatched neighbor with the heaviest link, the lighter one on ties.
+	 * Vertexes left over are paired with another left over neighbor of one
+	 * of their neighbors, which lets the many stubs around a hub of an AS
+	 * graph contract too. Wardens stay unmatched.
+	 *
+	 * @return the mate of every vertex, itself if unmatched
+	 */
+	private int[] match(Level level, SplittableRandom random, int maxVertexWeight) {
+		CSRGraph graph = level.graph;
+		int vertexCount = graph.getVertexCount();
+		int[] mates = new int[vertexCount];
+		Arrays.fill(mates, MultilevelPartitioning.NONE);
+		for (int warden : level.wardens) {
+			mates[warden] = warden;
+		}
+
+		int[] order = new int[vertexCount];
+		for (int v = 0; v < vertexCount; ++v) {
+			order[v] = v;
+		}
+		for (int i = vertexCount - 1; i > 0; --i) {
+			int j = random.nextInt(i + 1);
+			int swap = order[i];
+			order[i] = order[j];
+			order[j] = swap;
+		}
+
+		for (int v : order) {
+			if (mates[v] != MultilevelPartitioning.NONE) {
+				continue;
+			}
+			int best = MultilevelPartitioning.NONE;
+			for (int slot = graph.getNeighborStart(v); slot < graph.getNeighborEnd(v); ++slot) {
+				int neighbor = graph.getNeighbor(slot);
+				if (mates[neighbor] != MultilevelPartitioning.NONE
+						|| level.vertexWeights[v] + level.vertexWeights[neighbor] > maxVertexWeight) {
+					continue;
+				}
+				if (best == MultilevelPartitioning.NONE || level.edgeWeights[slot] > level.edgeWeights[best]
+						|| (level.edgeWeights[slot] == level.edgeWeights[best]
+								&& level.vertexWeights[neighbor] < level.vertexWeights[graph.getNeighbor(best)])) {
+					best = slot;
+				}
+			}
+			if (best != MultilevelPartitioning.NONE) {
+				int mate = graph.getNeighbor(best);
+				mates[v] = mate;
+				mates[mate] = v;
+			}
+		}
+
+		/* two hop pairs, through the neighbors of the left over vertexes */
+		for (int v : order) {
+			if (mates[v] != MultilevelPartitioning.NONE) {
+				continue;
+			}
+			mates[v] = v;
+			for (int slot = graph.getNeighborStart(v); slot < graph.getNeighborEnd(v) && mates[v] == v; ++slot) {
+				int middle = graph.getNeighbor(slot);
+				for (int middleSlot = graph.getNeighborStart(middle); middleSlot < graph.getNeighborEnd(middle); ++middleSlot) {
+					int other = graph.getNeighbor(middleSlot);
+					if (mates[other] == MultilevelPartitioning.NONE
+							&& level.vertexWeights[v] + level.vertexWeights[other] <= maxVertexWeight) {
+						mates[v] = other;
+						mates[other] = v;
+						break;
+					}
+				}
+			}
+		}
+		return mates;
+	}
+
+	/**
+	 * contract every matched pair into one vertex, merging the parallel
+	 * links and dropping the ones inside a pair. A coarse vertex keeps the
+	 * ASN of its first fine vertex, a merged link the relationship of its
+	 * first fine link, so the two directions may disagree. The rows are
+	 * sorted like the ones of the input graph, findSlot works on every level.
+	 */
+	private Level contract(Level level, int[] mates) {
+		CSRGraph graph = level.graph;
+		int vertexCount = graph.getVertexCount();
+		int[] coarseMap = new int[vertexCount];
+		Arrays.fill(coarseMap, MultilevelPartitioning.NONE);
+		int[] firstMembers = new int[vertexCount];
+		int coarseCount = 0;
+		for (int v = 0; v < vertexCount; ++v) {
+			if (coarseMap[v] == MultilevelPartitioning.NONE) {
+				coarseMap[v] = coarseCount;
+				coarseMap[mates[v]] = coarseCount;
+				firstMembers[coarseCount++] = v;
+			}
+		}
+
+		int[] offsets = new int[coarseCount + 1];
+		int[] targets = new int[graph.getSlotCount()];
+		byte[] relationships = new byte[graph.getSlotCount()];
+		int[] edgeWeights = new int[graph.getSlotCount()];
+		int[] vertexWeights = new int[coarseCount];
+		int[] asns = new int[coarseCount];
+		/* slot of every coarse neighbor in the row being built */
+		int[] rowSlots = new int[coarseCount];
+		Arrays.fill(rowSlots, MultilevelPartitioning.NONE);
+		/* a coarse row has at most the neighbors of both members */
+		long[] sortKeys = new long[graph.getMaxDegree() * 2];
+		byte[] relationshipBuffer = new byte[sortKeys.length];
+		int[] weightBuffer = new int[sortKeys.length];
+		int write = 0;
+		for (int c = 0; c < coarseCount; ++c) {
+			offsets[c] = write;
+			int first = firstMembers[c];
+			asns[c] = graph.getASN(first);
+			int[] members = first == mates[first] ? new int[] { first } : new int[] { first, mates[first] };
+			for (int member : members) {
+				vertexWeights[c] += level.vertexWeights[member];
+				for (int slot = graph.getNeighborStart(member); slot < graph.getNeighborEnd(member); ++slot) {
+					int target = coarseMap[graph.getNeighbor(slot)];
+					if (target == c) {
+						continue;
+					}
+					if (rowSlots[target] == MultilevelPartitioning.NONE) {
+						rowSlots[target] = write;
+						targets[write] = target;
+						relationships[write] = graph.getRelationship(slot);
+						++write;
+					}
+					edgeWeights[rowSlots[target]] += level.edgeWeights[slot];
+				}
+			}
+			for (int slot = offsets[c]; slot < write; ++slot) {
+				rowSlots[targets[slot]] = MultilevelPartitioning.NONE;
+			}
+			MultilevelPartitioning.sortRow(targets, relationships, edgeWeights, offsets[c], write, sortKeys,
+					relationshipBuffer, weightBuffer);
+		}
+		offsets[coarseCount] = write;
+
+		int[] wardens = new int[level.wardens.length];
+		for (int i = 0; i < wardens.length; ++i) {
+			wardens[i] = coarseMap[level.wardens[i]];
+		}
+		level.coarseMap = coarseMap;
+		CSRGraph coarseGraph = new CSRGraph(offsets, Arrays.copyOf(targets, write),
+				Arrays.copyOf(relationships, write), asns);
+		return new Level(coarseGraph, wardens, vertexWeights, Arrays.copyOf(edgeWeights, write));
+	}
+
+	/**
+	 * sort the row [from, to) by target, with its relationships and weights,
+	 * since CSRGraph.findSlot binary searches the rows
+	 *
+	 * @param sortKeys
+	 *            at least to - from long, the target in the high half and the
+	 *            old slot in the low half
+	 * @param relationshipBuffer
+	 * @param weightBuffer
+	 *            as long as sortKeys
+	 */
+	private static void sortRow(int[] targets, byte[] relationships, int[] edgeWeights, int from, int to,
+			long[] sortKeys, byte[] relationshipBuffer, int[] weightBuffer) {
+		int length = to - from;
+		for (int i = 0; i < length; ++i) {
+			sortKeys[i] = (long) targets[from + i] << 32 | (from + i);
+		}
+		Arrays.sort(sortKeys, 0, length);
+		for (int i = 0; i < length; ++i) {
+			int slot = (int) sortKeys[i];
+			relationshipBuffer[i] = relationships[slot];
+			weightBuffer[i] = edgeWeights[slot];
+		}
+		for (int i = 0; i < length; ++i) {
+			targets[from + i] = (int) (sortKeys[i] >>> 32);
+		}
+		System.arraycopy(relationshipBuffer, 0, relationships, from, length);
+		System.arraycopy(weightBuffer, 0, edgeWeights, from, length);
+	}
+
+	/**
+	 * every vertex of the level takes the side of its coarse vertex
+	 */
+	private static byte[] project(Level level, byte[] coarseSides) {
+		byte[] fineSides = new byte[level.graph.getVertexCount()];
+		for (int v = 0; v < fineSides.length; ++v) {
+			fineSides[v] = coarseSides[level.coarseMap[v]];
+		}
+		return fineSides;
+	}
+
+	/**
+	 * a projected separator vertex often has neighbors on one shore only, it
+	 * then joins that shore (the opposite one if it has none at all). Sides
+	 * are read as they change, so every move keeps the separator valid.
+	 */
+	private static void thin(CSRGraph graph, byte[] sides) {
+		for (int v = 0; v < sides.length; ++v) {
+			if (sides[v] != MultilevelPartitioning.SEPARATOR) {
+				continue;
+			}
+			boolean wardenNeighbor = false;
+			boolean oppositeNeighbor = false;
+			for (int slot = graph.getNeighborStart(v); slot < graph.getNeighborEnd(v); ++slot) {
+				byte side = sides[graph.getNeighbor(slot)];
+				wardenNeighbor |= side == MultilevelPartitioning.WARDEN_SHORE;
+				oppositeNeighbor |= side == MultilevelPartitioning.OPPOSITE_SHORE;
+			}
+			if (!wardenNeighbor) {
+				sides[v] = MultilevelPartitioning.OPPOSITE_SHORE;
+			} else if (!oppositeNeighbor) {
+				sides[v] = MultilevelPartitioning.WARDEN_SHORE;
+			}
+		}
+	}
+
+	/**
+	 * @return a warden shore vertex with an opposite shore neighbor, NONE if
+	 *         the separators cut every such link
+	 */
+	private static int findShoreContact(CSRGraph graph, byte[] sides) {
+		for (int v = 0; v < graph.getVertexCount(); ++v) {
+			if (sides[v] != MultilevelPartitioning.WARDEN_SHORE) {
+				continue;
+			}
+			for (int slot = graph.getNeighborStart(v); slot < graph.getNeighborEnd(v); ++slot) {
+				if (sides[graph.getNeighbor(slot)] == MultilevelPartitioning.OPPOSITE_SHORE) {
+					return v;
+				}
+			}
+		}
+		return MultilevelPartitioning.NONE;
+	}
+
+	private static byte[] toSides(SeparatorVerifier.Partition partition, int vertexCount) {
+		byte[] sides = new byte[vertexCount];
+		for (int v = 0; v < vertexCount; ++v) {
+			if (partition.isSeparator(v)) {
+				sides[v] = MultilevelPartitioning.SEPARATOR;
+			} else if (partition.isWardenShore(v)) {
+				sides[v] = MultilevelPartitioning.WARDEN_SHORE;
+			} else {
+				sides[v] = MultilevelPartitioning.OPPOSITE_SHORE;
+			}
+		}
+		return sides;
+	}
+
+	private static int count(byte[] sides, byte side) {
+		int count = 0;
+		for (byte s : sides) {
+			if (s == side) {
+				++count;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @return the shores and separators of the input graph after the last
+	 *         run
+	 */
+	public SeparatorVerifier.Partition getResult() {
+		return new Sides(this.sides);
+	}
+
+	public int getSeparatorSize() {
+		return this.separatorSize;
+	}
+
+	public int getWardenShoreSize() {
+		return this.wardenShoreSize;
+	}
+
+	public int getOppositeShoreSize() {
+		return this.sides.length - this.separatorSize - this.wardenShoreSize;
+	}
+
+	/**
+	 * one graph of the hierarchy with its weights
+	 */
+	private static class Level {
+
+		private final CSRGraph graph;
+		private final int[] wardens;
+		/** number of input vertexes every vertex stands for */
+		private final int[] vertexWeights;
+		/** number of input links every slot stands for, parallel to the slots */
+		private final int[] edgeWeights;
+		/** vertex of the next coarser level of every vertex, null on the coarsest */
+		private int[] coarseMap;
+
+		Level(CSRGraph graph, int[] wardens, int[] vertexWeights, int[] edgeWeights) {
+			this.graph = graph;
+			this.wardens = wardens;
+			this.vertexWeights = vertexWeights;
+			this.edgeWeights = edgeWeights;
+		}
+	}
+
+	/**
+	 * partition view over a side array
+	 */
+	private static class Sides implements SeparatorVerifier.Partition {
+
+		private final byte[] sides;
+
+		Sides(byte[] sides) {
+			this.sides = sides;
+		}
+
+		@Override
+		public boolean isSeparator(int vertex) {
+			return this.sides[vertex] == MultilevelPartitioning.SEPARATOR;
+		}
+
+		@Override
+		public boolean isWardenShore(int vertex) {
+			return this.sides[vertex] == MultilevelPartitioning.WARDEN_SHORE;
+		}
+	}
+}
@@ -0,0 +1,120 @@
+package sim;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the rounds of the opt mode concurrently on a shared Topology.
+ *
+ * A round partitions the graph from scratch and then optimizes the
+ * separators, rounds do not depend on each other. Every round writes its
+ * own separatorTrend<N>.txt, the ratios are collected and written to
+ * wTooRatio.txt in round order by the calling thread, each followed by the
+ * seed of its round.
+ */
+public class OptimizationRunner {
+
+	private final Topology topology;
+	private final String wardenMode;
+	private final String oppositeMode;
+	private final String wardenOptMode;
+	private final String oppositeOptMode;
+	private final int threshold;
+	private final String filePath;
+	private final int threads;
+
+	public OptimizationRunner(Topology topology, String wardenMode, String oppositeMode,
+			String wardenOptMode, String oppositeOptMode, int threshold, String filePath, int threads) {
+		this.topology = topology;
+		this.wardenMode = wardenMode;
+		this.oppositeMode = oppositeMode;
+		this.wardenOptMode = wardenOptMode;
+		this.oppositeOptMode = oppositeOptMode;
+		this.threshold = threshold;
+		this.filePath = filePath;
+		this.threads = threads;
+	}
+
+	/**
+	 * @param rounds
+	 * @param masterSeed
+	 * @return false if the separators of a round are wrong, before or after
+	 *         the optimization
+	 * @throws IOException
+	 */
+	public boolean run(int rounds, long masterSeed) throws IOException {
+		BufferedWriter writeOutRatio = new BufferedWriter(new FileWriter(this.filePath + "/wTooRatio.txt"));
+		ExecutorService pool = Executors.newFixedThreadPool(this.threads);
+		boolean passed = true;
+		try {
+			List<Future<Round>> results = new ArrayList<Future<Round>>(rounds);
+			for (int runs = 1; runs <= rounds; ++runs) {
+				results.add(pool.submit(new Round(runs, TrialRunner.trialSeed(masterSeed, runs))));
+			}
+			for (Future<Round> result : results) {
+				Round round = result.get();
+				if (!round.separatorsPassed) {
+					System.out.println("Wrong separators...");
+					passed = false;
+					break;
+				}
+				/* a round whose optimized result fails the test has no ratio */
+				if (round.ratio == null) {
+					System.out.println("Optimized separators of round " + round.runs + " failed the test...");
+					passed = false;
+					break;
+				}
+				writeOutRatio.write(round.ratio + "," + round.seed + "\n");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("interrupted while waiting for the rounds", e);
+		} catch (ExecutionException e) {
+			throw new IOException("a round failed", e.getCause());
+		} finally {
+			pool.shutdownNow();
+			writeOutRatio.close();
+		}
+		return passed;
+	}
+
+	/**
+	 * one partitioning and optimization round, with its own engines
+	 */
+	private class Round implements Callable<Round> {
+
+		private final int runs;
+		private final long seed;
+		private boolean separatorsPassed;
+		private Double ratio;
+
+		Round(int runs, long seed) {
+			this.runs = runs;
+			this.seed = seed;
+		}
+
+		@Override
+		public Round call() throws IOException {
+			OptimizationRunner self = OptimizationRunner.this;
+			GraphPartitioning partitionEngine = new GraphPartitioning(self.topology);
+			partitionEngine.setModes(self.wardenMode, self.oppositeMode);
+			this.separatorsPassed = partitionEngine.runTrial(this.seed);
+			if (!this.separatorsPassed) {
+				return this;
+			}
+			/* pass the separators and shores of the round, and a threshold as parameters. */
+			OptimizeSeparator optimizeEngine = new OptimizeSeparator(partitionEngine.getResult(),
+					self.wardenOptMode, self.oppositeOptMode, self.threshold, self.filePath);
+			this.ratio = optimizeEngine.simulate(this.runs);
+			return this;
+		}
+	}
+}
@@ -3,131 +3,314 @@ package sim;
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.PriorityQueue;
-import java.util.Queue;
-import java.util.Set;
+import java.util.Arrays;
 
-import comparator.LargeSeparatorNeighborsCom;
-import comparator.SmallSeparatorNeighborsCom;
+import util.BucketQueue;
+import util.IndexedHeap;
 
-import graph.Vertex;
+import graph.CSRGraph;
 
+/**
+ * Swaps fringe nodes into the separator set as long as that frees more
+ * separators than it adds.
+ *
+ * Every vertex is in exactly one region (shore, fringe, fixed fringe or
+ * separator of a side), and every vertex counts its warden side, opposite
+ * side and separator neighbors. The counters are updated when a neighbor
+ * changes region, so a swap costs the degrees of the nodes it touches
+ * instead of rescanning the neighbors of every neighbor.
+ */
 public class OptimizeSeparator {
 
+	/** regions, every vertex is in exactly one */
+	private static final byte WARDEN_SHORE = 1;
+	private static final byte WARDEN_FRINGE = 2;
+	private static final byte FIXED_WARDEN_FRINGE = 3;
+	private static final byte SEPARATOR = 4;
+	private static final byte OPPOSITE_FRINGE = 5;
+	private static final byte FIXED_OPPOSITE_FRINGE = 6;
+	private static final byte OPPOSITE_SHORE = 7;
+	private static final int NONE_LEFT = -1;
+
+	private CSRGraph graph;
 	private int threshold;
 	private String filePath;
-	private Set<Vertex> separatorSet;
-	private Set<Vertex> wardenSet;
-	/** warden shore contains wardens */
-	private Set<Vertex> wardenShore;
-	private Set<Vertex> oppositeShore;
-	
-	private PriorityQueue<Vertex> wardenFringe;
-	private PriorityQueue<Vertex> oppositeFringe;
-	private PriorityQueue<Vertex> bothFringes;
-	/** fixed fringes store the nodes only have one connection to the separator set */
-	private Set<Vertex> fixedWardenFringe;
-	private Set<Vertex> fixedOppositeFringe;
-	
+
+	/** region of every vertex, indexed by vertex index */
+	private byte[] regions;
+	/** number of vertexes in every region */
+	private int[] regionSizes;
+	private boolean[] wardenFlags;
+	private int[] wardens;
+	private boolean[] adjacentToWarden;
+	/** number of neighbors that are wardens or on the warden side */
+	private int[] wardenNeighbors;
+	/** number of neighbors on the opposite side */
+	private int[] oppositeNeighbors;
+	/** number of neighbors in the separator set */
+	private int[] separatorCounts;
+
+	/**
+	 * fringes hold the nodes whose swap frees at least two separators, keyed
+	 * by that number and re-keyed whenever it changes
+	 */
+	private IndexedHeap wardenFringe;
+	private IndexedHeap oppositeFringe;
+	private IndexedHeap bothFringes;
+	/**
+	 * number of separators the node is the only warden side (opposite side)
+	 * neighbor of, they leave the separator set when the node joins it
+	 */
+	private int[] soleWardenSeparators;
+	private int[] soleOppositeSeparators;
+	/** set once the fringes are created, the fm passes do not use them */
+	private boolean trackingFringes;
+	private boolean wardenLargeFirst;
+	private boolean oppositeLargeFirst;
+
+	private SeparatorVerifier verifier;
+	/** the current regions, both shore and fringe are part of wardens */
+	private SeparatorVerifier.Partition regionPartition;
+
 	private String wardenType;
 	private String oppositeType;
-	
+
 	private static final String LargeToSmall = "lts";
 	private static final String smallToLarge = "stl";
+	/** Fiduccia-Mattheyses passes over the separator, on both shores at once */
+	private static final String FM = "fm";
+	/** a pass gives up after this many moves without a smaller separator */
+	private static final int FM_STALL_MOVES = 200;
+	/** a shore may shrink to this share of an even split, never below */
+	private static final double FM_MIN_SHARE = 0.9;
+
+	private boolean fmMode;
+	/** gains of the unlocked separators moving to a shore, keyed by -gain */
+	private BucketQueue toWardenGains;
+	private BucketQueue toOppositeGains;
+	private boolean[] locked;
+	/** vertexes moved in the current pass and their previous regions */
+	private int[] moveLog;
+	private byte[] moveLogRegions;
+	private int moveLogSize;
 
-	public OptimizeSeparator(Set<Vertex> separators, Set<Vertex> wardenShore,
-			Set<Vertex> oppositeShore, Set<Vertex> wardens, String warden, String oppoiste, 
+	/**
+	 * @param partition
+	 *            read once, the optimization works on its own copy of the
+	 *            regions
+	 */
+	public OptimizeSeparator(PartitionResult partition, String warden, String oppoiste,
 			int threshold, String filePath) {
+		this(partition.getGraph(), partition.getWardens(), partition, warden, oppoiste, threshold, filePath);
+	}
+
+	/**
+	 * optimize any partition of any graph, e.g. one level of a multilevel
+	 * partitioning
+	 * 
+	 * @param graph
+	 * @param wardens
+	 * @param partition
+	 *            read once, every vertex that is neither a separator nor in
+	 *            the warden shore is in the opposite shore
+	 * @param warden
+	 * @param oppoiste
+	 * @param threshold
+	 * @param filePath
+	 *            where simulate writes the trend, not used by refine
+	 */
+	public OptimizeSeparator(CSRGraph graph, int[] wardens, SeparatorVerifier.Partition partition,
+			String warden, String oppoiste, int threshold, String filePath) {
+		int vertexCount = graph.getVertexCount();
+		this.graph = graph;
 		this.filePath = filePath;
 		this.wardenType = warden;
 		this.oppositeType = oppoiste;
-		this.separatorSet = separators;
-		this.wardenSet = wardens;
-		this.wardenShore = wardenShore;
-		this.oppositeShore = oppositeShore;
 		this.threshold = threshold;
-		this.bothFringes = new PriorityQueue<Vertex>(1, new LargeSeparatorNeighborsCom());
-		
-		/* to be initialized */
-		if (this.wardenType.equalsIgnoreCase(OptimizeSeparator.LargeToSmall)) {
-			this.wardenFringe = new PriorityQueue<Vertex>(1, new LargeSeparatorNeighborsCom());
-		} else if (this.wardenType.equalsIgnoreCase(OptimizeSeparator.smallToLarge)) {
-			this.wardenFringe = new PriorityQueue<Vertex>(1, new SmallSeparatorNeighborsCom());			
-		} else {
-			/**
-			 * under construction
-			 */
-		}
-		
-		if (this.oppositeType.equalsIgnoreCase(OptimizeSeparator.LargeToSmall)) {
-			this.oppositeFringe = new PriorityQueue<Vertex>(1, new LargeSeparatorNeighborsCom());
-		} else if (this.oppositeType.equalsIgnoreCase(OptimizeSeparator.smallToLarge)) {
-			this.oppositeFringe = new PriorityQueue<Vertex>(1, new SmallSeparatorNeighborsCom());		
-		} else {
-		/**
-		 * under construction
-		 */
+		this.bothFringes = new IndexedHeap(vertexCount);
+		this.wardenFringe = new IndexedHeap(vertexCount);
+		this.oppositeFringe = new IndexedHeap(vertexCount);
+
+		this.fmMode = this.wardenType.equalsIgnoreCase(OptimizeSeparator.FM)
+				|| this.oppositeType.equalsIgnoreCase(OptimizeSeparator.FM);
+		/* stl and the types under construction take the small counts first */
+		this.wardenLargeFirst = this.wardenType.equalsIgnoreCase(OptimizeSeparator.LargeToSmall);
+		this.oppositeLargeFirst = this.oppositeType.equalsIgnoreCase(OptimizeSeparator.LargeToSmall);
+
+		this.wardens = wardens;
+		this.wardenFlags = new boolean[vertexCount];
+		for (int wardenIndex : this.wardens) {
+			this.wardenFlags[wardenIndex] = true;
+		}
+		this.regions = new byte[vertexCount];
+		this.regionSizes = new int[OptimizeSeparator.OPPOSITE_SHORE + 1];
+		for (int v = 0; v < vertexCount; ++v) {
+			if (partition.isSeparator(v)) {
+				this.regions[v] = OptimizeSeparator.SEPARATOR;
+			} else if (partition.isWardenShore(v)) {
+				this.regions[v] = OptimizeSeparator.WARDEN_SHORE;
+			} else {
+				this.regions[v] = OptimizeSeparator.OPPOSITE_SHORE;
+			}
+			++this.regionSizes[this.regions[v]];
+		}
+		this.initializeCounters();
+
+		this.verifier = new SeparatorVerifier(graph);
+		this.regionPartition = new SeparatorVerifier.Partition() {
+			@Override
+			public boolean isSeparator(int vertex) {
+				return OptimizeSeparator.this.regions[vertex] == OptimizeSeparator.SEPARATOR;
+			}
+
+			@Override
+			public boolean isWardenShore(int vertex) {
+				return OptimizeSeparator.this.countsForWarden(vertex);
+			}
+		};
+	}
+
+	/**
+	 * count the neighbors of every vertex in each side from scratch, once
+	 */
+	private void initializeCounters() {
+		int vertexCount = this.graph.getVertexCount();
+		this.adjacentToWarden = new boolean[vertexCount];
+		this.wardenNeighbors = new int[vertexCount];
+		this.oppositeNeighbors = new int[vertexCount];
+		this.separatorCounts = new int[vertexCount];
+		for (int v = 0; v < vertexCount; ++v) {
+			for (int slot = this.graph.getNeighborStart(v); slot < this.graph.getNeighborEnd(v); ++slot) {
+				int neighbor = this.graph.getNeighbor(slot);
+				if (this.wardenFlags[neighbor]) {
+					this.adjacentToWarden[v] = true;
+				}
+				if (this.countsForWarden(neighbor)) {
+					++this.wardenNeighbors[v];
+				}
+				if (OptimizeSeparator.isOppositeSide(this.regions[neighbor])) {
+					++this.oppositeNeighbors[v];
+				}
+				if (this.regions[neighbor] == OptimizeSeparator.SEPARATOR) {
+					++this.separatorCounts[v];
+				}
+			}
 		}
-		
-		this.fixedWardenFringe = new HashSet<Vertex>();
-		this.fixedOppositeFringe = new HashSet<Vertex>();
 	}
-	
-	public void simulate(int runs, BufferedWriter writeOutRatio) throws IOException {
-		
+
+	/**
+	 * optimize the separators of one round
+	 *
+	 * @param runs
+	 *            the round number, used to name the trend file
+	 * @return the warden shore to opposite shore size ratio after the
+	 *         optimization, null if the result fails the test
+	 * @throws IOException
+	 */
+	public Double simulate(int runs) throws IOException {
+		Double ratio = null;
+
 		System.out.println("Before simulation..");
 		this.printStatistics();
-		
+
 		if (Constants.OPT_DEBUG) {
 			if (this.testResults()) {
 				System.out.println("Test Passed Before Getting Optimizing.");
 			} else {
 				System.out.println("Test Failed Before Getting Optimizing.");
-				return;
+				return null;
 			}
 		}
-		
+
+		int startSize = this.getSeparatorSize();
 		this.runOptimization(runs);
-		
-	
-		if (this.testResults()) {
+
+
+		if (this.testResults() && this.testSize(startSize)) {
 			System.out.println("The Final Result Passed the Test.\n");
-			int wardenCnt = this.wardenFringe.size() + this.fixedWardenFringe.size() + this.wardenShore.size();
-			int oppositeCnt = this.oppositeFringe.size() + this.fixedOppositeFringe.size() + this.oppositeShore.size();
-			writeOutRatio.write(Double.toString(1.0 * wardenCnt / oppositeCnt) + "\n");
-			
+			ratio = 1.0 * this.getWardenSideSize() / this.getOppositeSideSize();
+
 		} else {
 			System.out.println("The Final Result Failed to Pass the Test...");
 		}
-		
+
 		System.out.println("After simulation..");
 		this.printStatistics();
+		return ratio;
+	}
+
+	/**
+	 * run the swaps without statistics or trend file
+	 * 
+	 * @return true if the result passes the test
+	 * @throws IOException
+	 */
+	public boolean refine() throws IOException {
+		int startSize = this.getSeparatorSize();
+		if (this.fmMode) {
+			this.runFiducciaMattheyses(null);
+		} else {
+			this.createFringeSets();
+			this.runSwaps(null);
+		}
+		return this.testResults() && this.testSize(startSize);
+	}
+
+	/**
+	 * @return the current shores and separators, a view that follows the
+	 *         swaps
+	 */
+	public SeparatorVerifier.Partition getPartition() {
+		return this.regionPartition;
+	}
+
+	public int getSeparatorSize() {
+		return this.regionSizes[OptimizeSeparator.SEPARATOR];
 	}
 
 	private void runOptimization(int runs) throws IOException {
-		boolean done = false;
 		BufferedWriter separatorOut = new BufferedWriter(new FileWriter(this.filePath + "/separatorTrend" + runs + ".txt"));
+		if (this.fmMode) {
+			System.out.println("Running FM Optimization ... Runs " + runs + ".");
+			this.runFiducciaMattheyses(separatorOut);
+			separatorOut.close();
+			return;
+		}
 		this.createFringeSets();
-		
+
 		if (Constants.OPT_DEBUG) {
 			if (!this.testResults()) {
 				System.out.println("Test Failed After Fringes are Created.");
+				separatorOut.close();
 				return;
 			} else {
 				System.out.println("Test Passed After Fringes are Created.\n");
 			}
 		}
-		
+
 		System.out.println("Running Optimization ... Runs " + runs + ".");
-		for (int i = 0; i < this.threshold && !done; ++i) {			
-			
+		this.runSwaps(separatorOut);
+		separatorOut.close();
+	}
+
+	/**
+	 * swap up to threshold nodes
+	 * 
+	 * @param separatorOut
+	 *            gets the separator size before every swap, may be null
+	 * @throws IOException
+	 */
+	private void runSwaps(BufferedWriter separatorOut) throws IOException {
+		boolean done = false;
+		for (int i = 0; i < this.threshold && !done; ++i) {
+
 			if (i % 10 == 0) {
 				System.out.println(i + "% is done..");
 			}
-			separatorOut.write(this.separatorSet.size() + "," + i + "\n");
-			
+			if (separatorOut != null) {
+				separatorOut.write(this.regionSizes[OptimizeSeparator.SEPARATOR] + "," + i + "\n");
+			}
+
 			if (Constants.MERGEFRINGES) {
 				if (this.runMergedFringe(i)) {
 					break;
@@ -137,554 +320,495 @@ public class OptimizeSeparator {
 					break;
 				}
 			}
-			
+
 			if (Constants.OPT_DEBUG) {
 				System.out.println("********************************************************");
 			}
 		}
-		separatorOut.close();
 	}
-	
+
+	/**
+	 * Fiduccia-Mattheyses refinement of the separator. A move takes an
+	 * unlocked separator to one shore and pulls its neighbors on the other
+	 * shore into the separator, its gain is 1 minus their number. Every pass
+	 * makes the best move even if it is not an improvement, locks the moved
+	 * vertex, and in the end rolls back to the smallest separator it went
+	 * through, so it can climb out of the local minima of the greedy swaps.
+	 * 
+	 * The gains live in bucket queues updated in O(1) whenever a neighbor
+	 * counter changes. Wardens never leave the warden shore, and a shore only
+	 * shrinks while it stays above 90% of an even split, or the separator
+	 * would just shrink around the wardens. Passes run until one does not improve,
+	 * at most threshold of them.
+	 * 
+	 * @param separatorOut
+	 *            gets the separator size before every pass, may be null
+	 * @throws IOException
+	 */
+	private void runFiducciaMattheyses(BufferedWriter separatorOut) throws IOException {
+		int vertexCount = this.graph.getVertexCount();
+		this.toWardenGains = new BucketQueue(vertexCount, -1, this.graph.getMaxDegree());
+		this.toOppositeGains = new BucketQueue(vertexCount, -1, this.graph.getMaxDegree());
+		this.locked = new boolean[vertexCount];
+		this.moveLog = new int[64];
+		this.moveLogRegions = new byte[64];
+
+		int evenSplit = (int) (OptimizeSeparator.FM_MIN_SHARE * (this.getWardenSideSize() + this.getOppositeSideSize()) / 2);
+		int minWardenSize = Math.min(this.getWardenSideSize(), evenSplit);
+		int minOppositeSize = Math.min(this.getOppositeSideSize(), evenSplit);
+		int pass = 0;
+		boolean improved = true;
+		while (pass < this.threshold && improved) {
+			if (separatorOut != null) {
+				separatorOut.write(this.regionSizes[OptimizeSeparator.SEPARATOR] + "," + pass + "\n");
+			}
+			improved = this.runFiducciaMattheysesPass(minWardenSize, minOppositeSize);
+			++pass;
+		}
+		System.out.println("FM stops after " + pass + " passes, separator size "
+				+ this.regionSizes[OptimizeSeparator.SEPARATOR] + ".");
+	}
+
+	/**
+	 * @return true if the pass found a smaller separator
+	 */
+	private boolean runFiducciaMattheysesPass(int minWardenSize, int minOppositeSize) {
+		int startSize = this.regionSizes[OptimizeSeparator.SEPARATOR];
+		int bestSize = startSize;
+		int bestLogSize = 0;
+		this.moveLogSize = 0;
+		for (int v = 0; v < this.graph.getVertexCount(); ++v) {
+			if (this.regions[v] == OptimizeSeparator.SEPARATOR) {
+				this.queueGains(v);
+			}
+		}
+
+		for (int stall = 0; stall < OptimizeSeparator.FM_STALL_MOVES; ++stall) {
+			int toWarden = this.topCandidate(this.toWardenGains, this.getOppositeSideSize() - minOppositeSize,
+					this.oppositeNeighbors);
+			int toOpposite = this.topCandidate(this.toOppositeGains, this.getWardenSideSize() - minWardenSize,
+					this.wardenNeighbors);
+			if (toWarden == OptimizeSeparator.NONE_LEFT && toOpposite == OptimizeSeparator.NONE_LEFT) {
+				break;
+			}
+			if (toOpposite == OptimizeSeparator.NONE_LEFT || (toWarden != OptimizeSeparator.NONE_LEFT
+					&& this.toWardenGains.getPriority(toWarden) <= this.toOppositeGains.getPriority(toOpposite))) {
+				this.moveSeparator(toWarden, true);
+			} else {
+				this.moveSeparator(toOpposite, false);
+			}
+			if (this.regionSizes[OptimizeSeparator.SEPARATOR] < bestSize) {
+				bestSize = this.regionSizes[OptimizeSeparator.SEPARATOR];
+				bestLogSize = this.moveLogSize;
+				stall = -1;
+			}
+		}
+
+		/* roll back to the best prefix of the moves */
+		for (int i = this.moveLogSize - 1; i >= bestLogSize; --i) {
+			this.moveTo(this.moveLog[i], this.moveLogRegions[i]);
+		}
+		for (int i = 0; i < this.moveLogSize; ++i) {
+			this.locked[this.moveLog[i]] = false;
+		}
+		this.toWardenGains.clear();
+		this.toOppositeGains.clear();
+		return bestSize < startSize;
+	}
+
+	/**
+	 * @param gains
+	 * @param slack
+	 *            how many vertexes the other shore may still lose
+	 * @param otherNeighbors
+	 *            neighbors of every vertex on the other shore
+	 * @return the unlocked separator with the best gain towards the shore of
+	 *         the queue, NONE_LEFT if there is none or moving it would shrink
+	 *         the other shore too much
+	 */
+	private int topCandidate(BucketQueue gains, int slack, int[] otherNeighbors) {
+		if (gains.isEmpty()) {
+			return OptimizeSeparator.NONE_LEFT;
+		}
+		int v = gains.peek();
+		return otherNeighbors[v] <= slack ? v : OptimizeSeparator.NONE_LEFT;
+	}
+
+	/**
+	 * key every unlocked separator by minus its gain, a separator adjacent to
+	 * a warden can never move to the opposite shore
+	 */
+	private void queueGains(int v) {
+		this.toWardenGains.add(v, this.oppositeNeighbors[v] - 1);
+		if (!this.adjacentToWarden[v]) {
+			this.toOppositeGains.add(v, this.wardenNeighbors[v] - 1);
+		}
+	}
+
+	private void moveSeparator(int v, boolean toWardenShore) {
+		this.toWardenGains.remove(v);
+		this.toOppositeGains.remove(v);
+		this.locked[v] = true;
+		this.logAndMove(v, toWardenShore ? OptimizeSeparator.WARDEN_SHORE : OptimizeSeparator.OPPOSITE_SHORE);
+
+		byte otherShore = toWardenShore ? OptimizeSeparator.OPPOSITE_SHORE : OptimizeSeparator.WARDEN_SHORE;
+		for (int slot = this.graph.getNeighborStart(v); slot < this.graph.getNeighborEnd(v); ++slot) {
+			int neighbor = this.graph.getNeighbor(slot);
+			if (this.regions[neighbor] == otherShore) {
+				this.logAndMove(neighbor, OptimizeSeparator.SEPARATOR);
+				if (!this.locked[neighbor]) {
+					this.queueGains(neighbor);
+				}
+			}
+		}
+	}
+
+	/**
+	 * move a vertex for the current pass and re-key the unlocked separators
+	 * around it, whose neighbor counters just changed
+	 */
+	private void logAndMove(int v, byte region) {
+		if (this.moveLogSize == this.moveLog.length) {
+			this.moveLog = Arrays.copyOf(this.moveLog, 2 * this.moveLogSize);
+			this.moveLogRegions = Arrays.copyOf(this.moveLogRegions, 2 * this.moveLogSize);
+		}
+		this.moveLog[this.moveLogSize] = v;
+		this.moveLogRegions[this.moveLogSize++] = this.regions[v];
+		this.moveTo(v, region);
+		for (int slot = this.graph.getNeighborStart(v); slot < this.graph.getNeighborEnd(v); ++slot) {
+			int neighbor = this.graph.getNeighbor(slot);
+			if (this.regions[neighbor] == OptimizeSeparator.SEPARATOR && !this.locked[neighbor]) {
+				this.queueGains(neighbor);
+			}
+		}
+	}
+
+	/**
+	 * @return true if neither fringe has a node worth swapping
+	 */
 	private boolean runSeparatedFringes(int run) {
 		if (Constants.OPT_DEBUG) {
 			System.out.println("Run: " + (run+1));
-			System.out.println("Warden Fringe " + this.wardenFringe.size() + ", Opposite Fringe " 
-					+ this.oppositeFringe.size() + ", Separators " + this.separatorSet.size() + ".");
-			
+			System.out.println("Warden Fringe " + this.wardenFringe.size() + ", Opposite Fringe "
+					+ this.oppositeFringe.size() + ", Separators " + this.regionSizes[OptimizeSeparator.SEPARATOR] + ".");
+
 			System.out.println("Warden Shore Starts .. ");
 		}
-		
+
 		/* Optimize warden shore. */
-		if (this.optimizeWardenShore()) {
-			return true;
-		}
-		
+		boolean wardenDone = this.optimizeWardenShore();
+
 		if (Constants.OPT_DEBUG) {
 			if (!this.testResults()) {
 				System.out.println("Test Failed during swapping warden nodes in Run " + (run+1) + ".");
 				return true;
-			}				
+			}
 			System.out.println("Opposite Shore Starts .. ");
-		}			
-		
-		/* Optimize opposite shore. */
-		if (this.optimizeOppositeShore()) {
-			return true;
 		}
-		
+
+		/* Optimize opposite shore. */
+		boolean oppositeDone = this.optimizeOppositeShore();
+
 		if (Constants.OPT_DEBUG) {
 			if (!this.testResults()) {
 				System.out.println("Test Failed during swapping opp nodes. in Run " + (run+1) + ".\n\n");
 				return true;
 			}
 		}
+		if (wardenDone && oppositeDone) {
+			System.out.println("Stops because no fringe node is worth of swapping.........");
+			return true;
+		}
 		return false;
 	}
-	
+
 	/**
-	 * 
+	 *
 	 * @param run
 	 * @return return true if there is an error or cannot proceed.
 	 */
 	private boolean runMergedFringe(int run) {
-		Vertex node = this.bothFringes.peek();
-		/*
-		 * if is warden fringe, do warden swap,
-		 * else do opp swap
-		 */
-		if (node.isInWardenFringe()) {
-			return this.optimizeWardenShore();
-		} else if (node.isInOppositeFringe()) {
-			return this.optimizeOppositeShore();
-		} else {
-			System.out.println("An Error Because of This Merged Fringe..");
+		if (this.bothFringes.isEmpty()) {
+			System.out.println("Stops because no fringe node is worth of swapping.......");
 			return true;
 		}
+		this.swapIntoSeparators(this.bothFringes.poll());
+		return false;
 	}
-	
-	
+
+
 	/**
-	 * When a node in the warden shore in pushed into the separator set, 
-	 * all its neighbors have to be modified accordingly.
-	 * 
+	 * swap the warden fringe node that frees the most (lts) or the fewest
+	 * (stl) separators
+	 *
 	 * @return true if cannot find a candidate to swap into separator.
 	 */
 	private boolean optimizeWardenShore() {
-		if (this.isTheFringeEmpty(true)) {
-			System.out.println("Stops because the warden fringe is empty.......");
-			return true;
-		}
-		
-		Vertex currentNode = this.pollFromOneFringe(true);
-		currentNode.unsetFringesFlag();
-		/* when it only has one separator neighbor, it is not worth to swap anymore */
-		if (currentNode.getNumberOfSeparatorNeighbors() == 1) {
-			System.out.println("Stops because the warden shore is not worth of swapping...........");
-			this.putIntoOneFringe(true, currentNode);
-			currentNode.setInWardenFringe();
+		if (this.wardenFringe.isEmpty()) {
 			return true;
 		}
-
-		/* wardens cannot be swapped to a separator */
-		if (this.wardenSet.contains(currentNode)) {
-			return false;
-		}
-		
-		this.separatorSet.add(currentNode);
-		for (Vertex neighbor: currentNode.getAllNeighbors()) {
-			
-			if (this.separatorSet.contains(neighbor)) {
-				/* Only put the previous separators which are adjacent to one warden part nodes
-				 * into the opposite fringe set, others remain separators */
-				if (this.getWardenNeighborNumber(neighbor) == 0) {
-					this.separatorSet.remove(neighbor);
-					this.putIntoOppositeFringeAndUpdateFringe(neighbor);
-					neighbor.setInOppositeFringe();
-				}
-				
-			} else if (this.wardenShore.contains(neighbor)) {
-				
-				/* Wardens cannot be swapped to separators.. */
-				if (!this.wardenSet.contains(neighbor)) {
-					this.wardenShore.remove(neighbor);
-					this.putIntoWardenFringeWithoutConditions(neighbor);
-					neighbor.setInWardenFringe();
-				}
-				
-			} else if (this.isInTheFringe(true, neighbor)) {
-				this.removeFromOneFringe(true, neighbor);
-				this.putIntoWardenFringeWithoutConditions(neighbor);
-				neighbor.setInWardenFringe();
-
-			} else if (this.fixedWardenFringe.contains(neighbor)) {
-				this.fixedWardenFringe.remove(neighbor);
-				this.updateSeparatorNeighborNumber(neighbor);
-				this.putIntoOneFringe(true, neighbor);
-				neighbor.setInWardenFringe();
-
-			} else {
-				System.out.println("Not possible.. Something's wrong in warden swapping!!");
-				return true;
-			}
-		}		
-		
+		this.swapIntoSeparators(this.wardenFringe.poll());
 		return false;
 	}
-	
+
 	/**
-	 * When a node in the opposite shore in pushed into the separator set, 
-	 * all its neighbors have to be modified accordingly.
-	 * 
 	 * @return true if cannot find a candidate to swap into separator.
 	 */
 	private boolean optimizeOppositeShore() {
-		//if (this.oppositeFringe.isEmpty()) {
-		if (this.isTheFringeEmpty(false)) {
-			System.out.println("Stops because the oppoiste fringe is empty.............");
+		if (this.oppositeFringe.isEmpty()) {
 			return true;
 		}
-		
-		Vertex currentNode = this.pollFromOneFringe(false);
-		currentNode.unsetFringesFlag();
-		if (currentNode.getNumberOfSeparatorNeighbors() == 1) {
-			this.putIntoOneFringe(false, currentNode);
-			currentNode.setInOppositeFringe();
-			System.out.println("Stops because the opposite shore is not worth of swapping.........");
-			return true;
-		}
-		
-		this.separatorSet.add(currentNode);
-		for (Vertex neighbor: currentNode.getAllNeighbors()) {
-			
-			if (this.separatorSet.contains(neighbor)) {
-				if (this.getOppositeNeighborNumber(neighbor) == 0) {
-					this.separatorSet.remove(neighbor);
-					this.putIntoWardenFringeAndUpdateFringe(neighbor);
-					neighbor.setInWardenFringe();
-				}
-				
-			} else if (this.oppositeShore.contains(neighbor)) {
-				this.oppositeShore.remove(neighbor);
-				this.putIntoOppositeFringeWithoutConditions(neighbor);
-				neighbor.setInOppositeFringe();
-				
-			} else if (this.isInTheFringe(false, neighbor)) {	
-				this.removeFromOneFringe(false, neighbor);
-				this.putIntoOppositeFringeWithoutConditions(neighbor);
-				neighbor.setInOppositeFringe();
-				
-			} else if (this.fixedOppositeFringe.contains(neighbor)) {
-				this.fixedOppositeFringe.remove(neighbor);
-				this.updateSeparatorNeighborNumber(neighbor);
-				this.putIntoOneFringe(false, neighbor);
-				neighbor.setInOppositeFringe();
-				
-			} else {
-				System.out.println("Not possible.. Something's wrong in opposite swapping!!");
-				return true;
-			}
-		}
+		this.swapIntoSeparators(this.oppositeFringe.poll());
 		return false;
 	}
-	
+
 	/**
-	 * create two sets of nodes that are warden and opposite sides
-	 * respectively which are adjacent to at least one separators.
-	 * put these nodes into the priority queue.
+	 * When a node of a fringe is pushed into the separator set, the
+	 * separators it was the only side neighbor of move to the other side.
+	 * A fringe node frees at least two of them, so every swap shrinks the
+	 * separator set.
+	 *
+	 * @param v
+	 *            polled from its fringe
 	 */
-	private void createFringeSets() {
-		
-		System.out.println("Creating Warden Fringe ...");
-		Set<Vertex> tempWardenShore = new HashSet<Vertex>(this.wardenShore);
-		Set<Vertex> tempOppositeShore = new HashSet<Vertex>(this.oppositeShore);
-		for (Vertex node: tempWardenShore) {
-			this.initializeWardenFringe(node);
-		}
-		
-		System.out.println("Creating Opposite Fringe ...");
-		for (Vertex node: tempOppositeShore) {
-			this.initializeOppoisteFringe(node);
-		}
-	}
-	
-	private Vertex pollFromOneFringe(boolean fromWardenFringe) {
-		if (Constants.MERGEFRINGES) {
-			return this.bothFringes.poll();
-		} else {
-			if (fromWardenFringe) {
-				return this.wardenFringe.poll();
-			} else {
-				return this.oppositeFringe.poll();
+	private void swapIntoSeparators(int v) {
+		boolean wardenSide = OptimizeSeparator.isWardenSide(this.regions[v]);
+		int[] sideNeighbors = wardenSide ? this.wardenNeighbors : this.oppositeNeighbors;
+		this.moveTo(v, OptimizeSeparator.SEPARATOR);
+		for (int slot = this.graph.getNeighborStart(v); slot < this.graph.getNeighborEnd(v); ++slot) {
+			int neighbor = this.graph.getNeighbor(slot);
+			if (this.regions[neighbor] == OptimizeSeparator.SEPARATOR && sideNeighbors[neighbor] == 0) {
+				this.moveTo(neighbor, wardenSide ? OptimizeSeparator.OPPOSITE_SHORE : OptimizeSeparator.WARDEN_SHORE);
+				this.place(neighbor);
 			}
 		}
 	}
-	
-	private void putIntoOneFringe(boolean toWardenFringe, Vertex node) {
-		if (Constants.MERGEFRINGES) {
-			this.bothFringes.add(node);
-		} else {
-			if (toWardenFringe) {
-				this.wardenFringe.add(node);
-			} else {
-				this.oppositeFringe.add(node);
+
+	/**
+	 * count the separators every node is the only warden side or opposite
+	 * side neighbor of, and put the nodes of both sides into their
+	 * fringes. From here on moveTo keeps the counts and the fringes up to
+	 * date.
+	 */
+	private void createFringeSets() {
+		System.out.println("Creating Fringes ...");
+		int vertexCount = this.graph.getVertexCount();
+		this.soleWardenSeparators = new int[vertexCount];
+		this.soleOppositeSeparators = new int[vertexCount];
+		for (int v = 0; v < vertexCount; ++v) {
+			if (this.regions[v] == OptimizeSeparator.SEPARATOR) {
+				this.creditSoleNeighbors(v, 1);
 			}
 		}
+		this.trackingFringes = true;
+		for (int v = 0; v < vertexCount; ++v) {
+			this.place(v);
+		}
 	}
-	
-	private void removeFromOneFringe(boolean fromWardenFringe, Vertex node) {
-		if (Constants.MERGEFRINGES) {
-			this.bothFringes.remove(node);
-		} else {
-			if (fromWardenFringe) {
-				this.wardenFringe.remove(node);
+
+	/**
+	 * A node of a side goes into the fringe of its side if swapping it frees
+	 * at least two separators, keyed by that number, otherwise into the fixed
+	 * fringe if it is adjacent to a separator, or the shore. Wardens are never
+	 * queued, they cannot be swapped.
+	 */
+	private void place(int v) {
+		boolean wardenSide = OptimizeSeparator.isWardenSide(this.regions[v]);
+		if (!wardenSide && !OptimizeSeparator.isOppositeSide(this.regions[v])) {
+			return;
+		}
+		int freed = wardenSide ? this.soleWardenSeparators[v] : this.soleOppositeSeparators[v];
+		IndexedHeap fringe = this.fringeOf(wardenSide);
+		if (freed >= 2 && !this.wardenFlags[v]) {
+			boolean largeFirst = Constants.MERGEFRINGES || (wardenSide ? this.wardenLargeFirst : this.oppositeLargeFirst);
+			int key = largeFirst ? -freed : freed;
+			if (fringe.contains(v)) {
+				fringe.update(v, key);
 			} else {
-				this.oppositeFringe.remove(node);
+				fringe.add(v, key);
 			}
-		}
-	}
-	
-	private boolean isInTheFringe(boolean checkWardenFringe, Vertex node) {
-		if (Constants.MERGEFRINGES) {
-			return this.bothFringes.contains(node);
+			this.moveTo(v, wardenSide ? OptimizeSeparator.WARDEN_FRINGE : OptimizeSeparator.OPPOSITE_FRINGE);
 		} else {
-			if (checkWardenFringe) {
-				return this.wardenFringe.contains(node);
+			fringe.remove(v);
+			if (this.separatorCounts[v] > 0) {
+				this.moveTo(v, wardenSide ? OptimizeSeparator.FIXED_WARDEN_FRINGE : OptimizeSeparator.FIXED_OPPOSITE_FRINGE);
 			} else {
-				return this.oppositeFringe.contains(node);
+				this.moveTo(v, wardenSide ? OptimizeSeparator.WARDEN_SHORE : OptimizeSeparator.OPPOSITE_SHORE);
 			}
 		}
 	}
-	
-	private boolean isTheFringeEmpty(boolean checkWardenFringe) {
+
+	private IndexedHeap fringeOf(boolean wardenSide) {
 		if (Constants.MERGEFRINGES) {
-			return this.bothFringes.isEmpty();
-		} else {
-			if (checkWardenFringe) {
-				return this.wardenFringe.isEmpty();
-			} else {
-				return this.oppositeFringe.isEmpty();
-			}
+			return this.bothFringes;
 		}
+		return wardenSide ? this.wardenFringe : this.oppositeFringe;
 	}
-	
+
 	/**
-	 * Only count the separators have one connection to shores.
-	 * @param node
-	 * @return
+	 * credit (delta 1) or debit (delta -1) the only warden side and the only
+	 * opposite side neighbor of the separator, if it has one
 	 */
-	private int updateSeparatorNeighborNumber(Vertex node) {
-		int separatorCnt = 0;
-		for (Vertex neighbor: node.getAllNeighbors()) {
-			if (this.separatorSet.contains(neighbor) && !this.isAdjacentToWardens(neighbor)) {
-				++separatorCnt;
-			}
+	private void creditSoleNeighbors(int separator, int delta) {
+		if (this.wardenNeighbors[separator] == 1) {
+			this.credit(this.findSideNeighbor(separator, OptimizeSeparator.NONE_LEFT, true),
+					this.soleWardenSeparators, delta);
+		}
+		if (this.oppositeNeighbors[separator] == 1) {
+			this.credit(this.findSideNeighbor(separator, OptimizeSeparator.NONE_LEFT, false),
+					this.soleOppositeSeparators, delta);
 		}
-		node.setNumberOfSeparatorNeighbors(separatorCnt);
-		return separatorCnt;
 	}
-	
+
 	/**
-	 * count and return the number of nodes that are a part of warden side
-	 * of a given node
-	 * @param node
-	 * @return
+	 * the neighbor v of the separator joined (delta 1) or left (delta -1) a
+	 * side, whose neighbor counter of the separator is already updated. The
+	 * separator changes hands when the count leaves or reaches one.
 	 */
-	private int getWardenNeighborNumber(Vertex node) {
-		int wardenCnt = 0;
-		for (Vertex neighbor: node.getAllNeighbors()) {
-			if (this.isInTheFringe(true, neighbor) || this.wardenShore.contains(neighbor)
-					|| this.wardenSet.contains(neighbor) || this.fixedWardenFringe.contains(neighbor)) {
-				++wardenCnt;
-			}
+	private void updateSoleNeighbor(int separator, int v, int delta, boolean wardenSide) {
+		if (delta == 0) {
+			return;
 		}
-		return wardenCnt;
-	}
-	
-	private int getOppositeNeighborNumber(Vertex node) {
-		int oppositeCnt = 0;
-		for (Vertex neighbor: node.getAllNeighbors()) {
-			if (this.isInTheFringe(false, neighbor) || this.oppositeShore.contains(neighbor) 
-					|| this.fixedOppositeFringe.contains(neighbor)) {
-				++oppositeCnt;
-			}
+		int[] soleSeparators = wardenSide ? this.soleWardenSeparators : this.soleOppositeSeparators;
+		int after = wardenSide ? this.wardenNeighbors[separator] : this.oppositeNeighbors[separator];
+		if (after - delta == 1) {
+			this.credit(delta < 0 ? v : this.findSideNeighbor(separator, v, wardenSide), soleSeparators, -1);
 		}
-		return oppositeCnt;
-	}
-	
-	private int getSeparatorNeighborNumber(Vertex node) {
-		int separatorCnt = 0;
-		for (Vertex neighbor: node.getAllNeighbors()) {
-			if (this.separatorSet.contains(neighbor)) {
-				++separatorCnt;
-			}
+		if (after == 1) {
+			this.credit(delta > 0 ? v : this.findSideNeighbor(separator, v, wardenSide), soleSeparators, 1);
 		}
-		return separatorCnt;
 	}
-	
-	/**
-	 * check if a given node is adjacent to a warden
-	 * @param node
-	 * @return 	true if it is adjacent to one
-	 * 			false if it does not have any wardens adjacent
-	 */
-	private boolean isAdjacentToWardens(Vertex node) {
-		for (Vertex neighbor : node.getAllNeighbors()) 
-			if (this.wardenSet.contains(neighbor))
-				return true;
-		return false;
+
+	private void credit(int v, int[] soleSeparators, int delta) {
+		soleSeparators[v] += delta;
+		if (this.trackingFringes) {
+			this.place(v);
+		}
 	}
-	
+
 	/**
-	 * count the number of separator neighbors which are only adjacent
-	 * to one warden node (node in the warden shore or fringe).
-	 * @param node
-	 * @return
+	 * @return the neighbor of the separator other than except on the given
+	 *         side
 	 */
-	private int updateSeparatorCntForWarden_OneToMany(Vertex node) {
-		int separatorCnt = 0;
-		for (Vertex neighbor: node.getAllNeighbors()) {
-			if (this.separatorSet.contains(neighbor) && this.getWardenNeighborNumber(neighbor) == 1) {
-				++separatorCnt;
+	private int findSideNeighbor(int separator, int except, boolean wardenSide) {
+		for (int slot = this.graph.getNeighborStart(separator); slot < this.graph.getNeighborEnd(separator); ++slot) {
+			int neighbor = this.graph.getNeighbor(slot);
+			if (neighbor != except && (wardenSide ? this.countsForWarden(neighbor)
+					: OptimizeSeparator.isOppositeSide(this.regions[neighbor]))) {
+				return neighbor;
 			}
 		}
-		node.setNumberOfSeparatorNeighbors(separatorCnt);
-		return separatorCnt;
+		return OptimizeSeparator.NONE_LEFT;
 	}
-	
-	private int updateSeparatorCntForOpposite_OneToMany(Vertex node) {
-		int separatorCnt = 0;
-		for (Vertex neighbor: node.getAllNeighbors()) {
-			if (this.separatorSet.contains(neighbor) && this.getOppositeNeighborNumber(neighbor) == 1) {
-				++separatorCnt;
-			}
-		}
-		node.setNumberOfSeparatorNeighbors(separatorCnt);
-		return separatorCnt;
-	}
-	
+
 	/**
-	 * Given a node in the warden shore, if it is adjacent to 
-	 * separator, put it into the warden fringe or fixed warden fringe
-	 * based on the number of valid separators (separators 
-	 * must have only one adjacent warden node) they have,
-	 * 
-	 * If it is greater than 2, put it into the fringe,
-	 * otherwise put into the fixed fringe
-	 * 
-	 * @param node
-	 * @return true if it is literally put into warden fringe
+	 * move the node to the given region and update the side counters of its
+	 * neighbors, and once the fringes are created the separators they are
+	 * the only side neighbor of and the fringes
 	 */
-	private boolean initializeWardenFringe(Vertex node) {
-		int separatorCnt = 0;
-		boolean adjacentToSeparator = false;
-		for (Vertex neighbor: node.getAllNeighbors()) {
-			if (this.separatorSet.contains(neighbor)) {
-				adjacentToSeparator = true;
-				if (this.getWardenNeighborNumber(neighbor) == 1) {
-					++separatorCnt;
-				}
+	private void moveTo(int v, byte region) {
+		byte old = this.regions[v];
+		if (old == region) {
+			return;
+		}
+		this.regions[v] = region;
+		--this.regionSizes[old];
+		++this.regionSizes[region];
+
+		/* a warden counts for the warden side wherever it is */
+		int wardenDelta = this.wardenFlags[v] ? 0
+				: OptimizeSeparator.sideCount(OptimizeSeparator.isWardenSide(region))
+						- OptimizeSeparator.sideCount(OptimizeSeparator.isWardenSide(old));
+		int oppositeDelta = OptimizeSeparator.sideCount(OptimizeSeparator.isOppositeSide(region))
+				- OptimizeSeparator.sideCount(OptimizeSeparator.isOppositeSide(old));
+		int separatorDelta = OptimizeSeparator.sideCount(region == OptimizeSeparator.SEPARATOR)
+				- OptimizeSeparator.sideCount(old == OptimizeSeparator.SEPARATOR);
+		if (wardenDelta == 0 && oppositeDelta == 0 && separatorDelta == 0) {
+			return;
+		}
+		if (this.trackingFringes && old == OptimizeSeparator.SEPARATOR) {
+			this.creditSoleNeighbors(v, -1);
+		}
+		for (int slot = this.graph.getNeighborStart(v); slot < this.graph.getNeighborEnd(v); ++slot) {
+			int neighbor = this.graph.getNeighbor(slot);
+			this.wardenNeighbors[neighbor] += wardenDelta;
+			this.oppositeNeighbors[neighbor] += oppositeDelta;
+			this.separatorCounts[neighbor] += separatorDelta;
+			if (!this.trackingFringes) {
+				continue;
 			}
-		}
-		node.setNumberOfSeparatorNeighbors(separatorCnt);
-		if (adjacentToSeparator) {
-			this.wardenShore.remove(node);
-			if (separatorCnt >= 2) {
-				this.putIntoOneFringe(true, node);
-				node.setInWardenFringe();
-			} else {
-				this.fixedWardenFringe.add(node);
+			if (this.regions[neighbor] == OptimizeSeparator.SEPARATOR) {
+				this.updateSoleNeighbor(neighbor, v, wardenDelta, true);
+				this.updateSoleNeighbor(neighbor, v, oppositeDelta, false);
+			} else if (separatorDelta != 0) {
+				this.place(neighbor);
 			}
-			return true;
 		}
-		return false;
+		if (this.trackingFringes && region == OptimizeSeparator.SEPARATOR) {
+			this.creditSoleNeighbors(v, 1);
+		}
 	}
-	
-	private void putIntoWardenFringeWithoutConditions(Vertex node) {
-		node.setInWardenFringe();
-		this.putIntoOneFringe(true, node);
-		this.updateSeparatorCntForWarden_OneToMany(node);
+
+	private static boolean isWardenSide(byte region) {
+		return region == OptimizeSeparator.WARDEN_SHORE || region == OptimizeSeparator.WARDEN_FRINGE
+				|| region == OptimizeSeparator.FIXED_WARDEN_FRINGE;
 	}
-	
-	/**
-	 * Given the node was in the separator set, it should be pushed 
-	 * into the warden fringe. 
-	 * 
-	 * Some of its neighbors which are in the warden fringe already 
-	 * and are only connected to it will be pushed into the warden shore.
-	 * 
-	 * @param node
-	 */
-	private void putIntoWardenFringeAndUpdateFringe(Vertex node) {
-		
-		this.updateSeparatorNeighborNumber(node);
-		node.setInWardenFringe();
-		this.putIntoOneFringe(true, node);
-		for (Vertex neighbor: node.getAllNeighbors()) {
-			/* 
-			 * Because the given node has just been put into warden fringe,
-			 * the number of separator neighbor then should be zero
-			 */
-			if (this.isInTheFringe(true, neighbor) && this.getSeparatorNeighborNumber(neighbor) == 0) {
-				neighbor.unsetFringesFlag();
-				this.removeFromOneFringe(true, neighbor);
-				this.wardenShore.add(neighbor);
-			}
-		}
+
+	private static boolean isOppositeSide(byte region) {
+		return region == OptimizeSeparator.OPPOSITE_SHORE || region == OptimizeSeparator.OPPOSITE_FRINGE
+				|| region == OptimizeSeparator.FIXED_OPPOSITE_FRINGE;
 	}
-	
-	/**
-	 * Given a node in the opposite shore, if it is adjacent to 
-	 * separator, put it into the opposite fringe or fixed opposite fringe
-	 * based on the number of valid separators (separators 
-	 * must have only one adjacent opposite node) they have,
-	 * 
-	 * If it is greater than 2, put it into the fringe,
-	 * otherwise put into the fixed fringe
-	 * 
-	 * @param node
-	 * @return true if it is literally put into opposite fringe
-	 */
-	private boolean initializeOppoisteFringe(Vertex node) {
-		int separatorCnt = 0;
-		boolean adjacentToSeparator = false;
-		for (Vertex neighhor: node.getAllNeighbors()) {
-			if (this.separatorSet.contains(neighhor)) {
-				adjacentToSeparator = true;
-				if (this.getOppositeNeighborNumber(neighhor) == 1) {
-					++separatorCnt;
-				}
-			}
-		}
-		node.setNumberOfSeparatorNeighbors(separatorCnt);
-		
-		if (adjacentToSeparator) {
-			this.oppositeShore.remove(node);
-			if (separatorCnt >= 2) {
-				node.setInOppositeFringe();
-				this.putIntoOneFringe(false, node);
-			} else {
-				this.fixedOppositeFringe.add(node);
-			}
-			return true;
-		}
-		return false;
+
+	private static int sideCount(boolean inSide) {
+		return inSide ? 1 : 0;
 	}
-	
-	private void putIntoOppositeFringeWithoutConditions(Vertex node) {
-		node.setInOppositeFringe();
-		this.putIntoOneFringe(false, node);
-		this.updateSeparatorCntForOpposite_OneToMany(node);
+
+	private boolean countsForWarden(int v) {
+		return this.wardenFlags[v] || OptimizeSeparator.isWardenSide(this.regions[v]);
 	}
-	
-	
-	/**
-	 * Given the node was in the separator set, it should be pushed 
-	 * into the opposite fringe. 
-	 * 
-	 * Some of its neighbors which are in the opposite fringe already 
-	 * and are only connected to it will be pushed into the opposite shore.
-	 * 
-	 * @param node
-	 */
-	private void putIntoOppositeFringeAndUpdateFringe(Vertex node) {
-		
-		node.setInOppositeFringe();
-		this.oppositeFringe.add(node);
-		for (Vertex neighbor: node.getAllNeighbors()) {
-			/* 
-			 * Because the given node has just been put into opposite fringe,
-			 * the number of separator neighbor then should be zero
-			 */
-			if (this.isInTheFringe(false, neighbor) && this.getSeparatorNeighborNumber(neighbor) == 0) {
-				neighbor.unsetFringesFlag();
-				this.removeFromOneFringe(false, neighbor);
-				this.oppositeShore.add(neighbor);
-			}
-		}
+
+	private int getWardenSideSize() {
+		return this.regionSizes[OptimizeSeparator.WARDEN_SHORE] + this.regionSizes[OptimizeSeparator.WARDEN_FRINGE]
+				+ this.regionSizes[OptimizeSeparator.FIXED_WARDEN_FRINGE];
 	}
-	
+
+	private int getOppositeSideSize() {
+		return this.regionSizes[OptimizeSeparator.OPPOSITE_SHORE] + this.regionSizes[OptimizeSeparator.OPPOSITE_FRINGE]
+				+ this.regionSizes[OptimizeSeparator.FIXED_OPPOSITE_FRINGE];
+	}
+
 	private boolean testResults() {
-		Set<Vertex> visitedSet = new HashSet<Vertex>();
-		Queue<Vertex> testQueue = new LinkedList<Vertex>();
-		
-		for (Vertex warden : this.wardenSet) {
-			if (visitedSet.contains(warden))
-				continue;
-			testQueue.add(warden);
-			visitedSet.add(warden);
-		
-			while (!testQueue.isEmpty()) {
-				Vertex currentNode = testQueue.poll();
-	
-				for (Vertex nextNode : currentNode.getAllNeighbors()) {
-					if (visitedSet.contains(nextNode))
-						continue;
-	
-					if (this.separatorSet.contains(nextNode)) {
-						visitedSet.add(nextNode);
-					} else if (this.wardenShore.contains(nextNode) || this.isInTheFringe(true, nextNode) || this.fixedWardenFringe.contains(nextNode)) {
-						/* Both shore and fringe are part of wardens */
-						testQueue.add(nextNode);
-						visitedSet.add(nextNode);
-					} else {
-						/* The traffic can go through the separators... */
-						System.out.println("Test Failed.");
-						return false;
-					}
-				}
-			}
+		SeparatorVerifier.Verdict verdict = this.verifier.verify(this.wardens, this.regionPartition);
+		if (!verdict.isPassed()) {
+			/* The traffic can go through the separators... */
+			System.out.println("Test Failed. " + this.verifier.describe(verdict));
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * every swap and every kept fm pass shrinks the separator, the
+	 * optimization never ends on a larger one
+	 */
+	private boolean testSize(int startSize) {
+		if (Constants.TEST && this.getSeparatorSize() > startSize) {
+			System.out.println("Test Failed. The separator grew from " + startSize + " to "
+					+ this.getSeparatorSize() + ".");
+			return false;
 		}
 		return true;
 	}
-	
+
 	private void printStatistics() {
-		
+
 		System.out.println("Print Statistics:: ");
-		int wardenCnt = (this.wardenShore.size()+this.wardenFringe.size()+this.fixedWardenFringe.size());
-		int oppositeCnt = (this.oppositeShore.size()+this.oppositeFringe.size()+this.fixedOppositeFringe.size());
+		int wardenCnt = this.getWardenSideSize();
+		int oppositeCnt = this.getOppositeSideSize();
+		int separatorCnt = this.regionSizes[OptimizeSeparator.SEPARATOR];
 		System.out.println("Warden size : " + wardenCnt);
 		System.out.println("Opposite size : " + oppositeCnt);
-		System.out.println("Separator size : " + this.separatorSet.size());
-		System.out.println("Sum size : " + (wardenCnt+oppositeCnt+this.separatorSet.size()) + "\n\n");
+		System.out.println("Separator size : " + separatorCnt);
+		System.out.println("Sum size : " + (wardenCnt+oppositeCnt+separatorCnt) + "\n\n");
 	}
 }
@@ -0,0 +1,71 @@
+package sim;
+
+import graph.CSRGraph;
+
+/**
+ * Read only view of the partition found by the last trial of a
+ * GraphPartitioning, backed by the state array of its PartitionState.
+ *
+ * Membership is one array lookup and nothing is copied, a side is iterated
+ * by scanning the vertex indexes. The view follows the engine: it describes
+ * the last finished trial until the next one starts.
+ *
+ * The warden shore is every vertex the warden side reached that is not a
+ * separator, wardens included, before the components without wardens are
+ * pruned. The opposite shore is everything else.
+ */
+public class PartitionResult implements SeparatorVerifier.Partition {
+
+	private final Topology topology;
+	private final PartitionState state;
+
+	PartitionResult(Topology topology, PartitionState state) {
+		this.topology = topology;
+		this.state = state;
+	}
+
+	public CSRGraph getGraph() {
+		return this.topology.getGraph();
+	}
+
+	public int getVertexCount() {
+		return this.topology.getVertexCount();
+	}
+
+	/**
+	 * @return a copy of the vertex indexes of the wardens
+	 */
+	public int[] getWardens() {
+		return this.topology.getWardens();
+	}
+
+	public boolean isWarden(int vertex) {
+		return this.topology.isWarden(vertex);
+	}
+
+	@Override
+	public boolean isSeparator(int vertex) {
+		return this.state.isSeparator(vertex);
+	}
+
+	@Override
+	public boolean isWardenShore(int vertex) {
+		return this.state.isWardenShore(vertex);
+	}
+
+	public boolean isOppositeShore(int vertex) {
+		return !this.state.isSeparator(vertex) && !this.state.isWardenShore(vertex);
+	}
+
+	public int getSeparatorCount() {
+		return this.state.getSeparatorCount();
+	}
+
+	public int getWardenShoreCount() {
+		return this.state.getWardenShoreCount();
+	}
+
+	public int getOppositeShoreCount() {
+		return this.topology.getVertexCount() - this.state.getSeparatorCount() - this.state.getWardenShoreCount();
+	}
+}
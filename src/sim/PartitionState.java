@@ -0,0 +1,336 @@
+package sim;
+
+import java.util.SplittableRandom;
+
+import graph.CSRGraph;
+import graph.Vertex;
+import util.IndexedRandomSet;
+
+/**
+ * Per vertex state of one partitioning trial on a shared Topology.
+ *
+ * Every vertex whose state changes is recorded once in a touched list, so
+ * reset() only walks the vertexes the last trial actually visited instead
+ * of the whole graph.
+ *
+ * The neutral vertexes are kept in an IndexedRandomSet, so a random one is
+ * drawn in O(1). Every removal from it is logged with its position and
+ * reset() undoes them in reverse, which gives every trial the same pool
+ * order no matter what the trials before it did.
+ *
+ * The random searches draw the neighbors of a vertex with a partial
+ * Fisher-Yates shuffle in place over a private copy of its CSR range, one
+ * swap per draw. The cursors are stamped with the trial epoch and a stale
+ * one is rewound on first use by undoing its swaps, so reset() leaves them
+ * alone and every trial starts from the CSR order.
+ */
+public class PartitionState implements SeparatorVerifier.Partition {
+
+	/** vertexes that are neither in warden side nor opposite side yet */
+	public static final byte NEUTRAL = 0;
+	/** the initial wardens */
+	public static final byte WARDEN = 1;
+	/** reached by the warden side, not classified yet */
+	public static final byte WARDEN_GRAY = 2;
+	/** warden side vertexes that are not separators */
+	public static final byte WARDEN_BLACK = 3;
+	public static final byte SEPARATOR = 4;
+	/** reached by the opposite side, still extendible */
+	public static final byte OPP_GRAY = 5;
+	/** opposite side vertexes that cannot be extended anymore */
+	public static final byte OPP_BLACK = 6;
+
+	private final Topology topology;
+	private final CSRGraph graph;
+
+	/** one of the codes above for every vertex */
+	private final byte[] states;
+	private final IndexedRandomSet neutrals;
+	/** vertexes removed from the neutral pool in order, with their positions */
+	private final int[] neutralRemovals;
+	private final int[] neutralRemovalPositions;
+	private int neutralRemovalCount;
+	/** number of vertexes in the separator and in the warden shore states */
+	private int separatorCount;
+	private int wardenShoreCount;
+	/**
+	 * number of neighbors that cannot be extended anymore by either side,
+	 * kept up to date by setState while counting is on
+	 */
+	private boolean countingNeighbors;
+	/** neighbors that are wardens, warden black or separators */
+	private final int[] wardenBlackNeighbors;
+	/** neighbors that are opposite black or separators */
+	private final int[] oppositeBlackNeighbors;
+	/** warden black neighbors before the first transition, ie the warden neighbors */
+	private final int[] initialWardenBlackNeighbors;
+	/** the CSR neighbors, permuted in place by the draws */
+	private final int[] neighborOrder;
+	/** slot swapped with every drawn position of neighborOrder */
+	private final int[] swappedSlots;
+	/** neighbors drawn from every vertex in the epoch of its cursor */
+	private final int[] drawnNeighbors;
+	private final int[] cursorEpochs;
+	/** the current trial, starts at 1 so that every cursor is stale */
+	private int epoch;
+
+	private final boolean[] touched;
+	private final int[] touchedList;
+	private int touchedCount;
+
+	public PartitionState(Topology topology) {
+		this.topology = topology;
+		this.graph = topology.getGraph();
+		int vertexCount = this.graph.getVertexCount();
+
+		this.states = new byte[vertexCount];
+		this.neutrals = new IndexedRandomSet(vertexCount);
+		for (int v = 0; v < vertexCount; ++v) {
+			if (topology.isWarden(v)) {
+				this.states[v] = PartitionState.WARDEN;
+			} else {
+				this.states[v] = PartitionState.NEUTRAL;
+				this.neutrals.add(v);
+			}
+		}
+		this.neutralRemovals = new int[vertexCount];
+		this.neutralRemovalPositions = new int[vertexCount];
+		this.neutralRemovalCount = 0;
+		this.separatorCount = 0;
+		this.wardenShoreCount = topology.getWardenCount();
+		this.countingNeighbors = false;
+		this.wardenBlackNeighbors = new int[vertexCount];
+		this.oppositeBlackNeighbors = new int[vertexCount];
+		this.initialWardenBlackNeighbors = new int[vertexCount];
+		for (int i = 0; i < topology.getWardenCount(); ++i) {
+			int warden = topology.getWarden(i);
+			for (int slot = this.graph.getNeighborStart(warden); slot < this.graph.getNeighborEnd(warden); ++slot) {
+				++this.initialWardenBlackNeighbors[this.graph.getNeighbor(slot)];
+			}
+		}
+		System.arraycopy(this.initialWardenBlackNeighbors, 0, this.wardenBlackNeighbors, 0, vertexCount);
+		this.neighborOrder = new int[this.graph.getSlotCount()];
+		for (int slot = 0; slot < this.neighborOrder.length; ++slot) {
+			this.neighborOrder[slot] = this.graph.getNeighbor(slot);
+		}
+		this.swappedSlots = new int[this.graph.getSlotCount()];
+		this.drawnNeighbors = new int[vertexCount];
+		this.cursorEpochs = new int[vertexCount];
+		this.epoch = 1;
+
+		this.touched = new boolean[vertexCount];
+		this.touchedList = new int[vertexCount];
+		this.touchedCount = 0;
+	}
+
+	/**
+	 * bring every vertex touched by the last trial back to its initial state
+	 */
+	public void reset() {
+		for (int i = 0; i < this.touchedCount; ++i) {
+			int v = this.touchedList[i];
+			this.states[v] = this.topology.isWarden(v) ? PartitionState.WARDEN : PartitionState.NEUTRAL;
+			this.wardenBlackNeighbors[v] = this.initialWardenBlackNeighbors[v];
+			this.oppositeBlackNeighbors[v] = 0;
+			this.touched[v] = false;
+		}
+		this.touchedCount = 0;
+		++this.epoch;
+		while (this.neutralRemovalCount > 0) {
+			--this.neutralRemovalCount;
+			this.neutrals.restore(this.neutralRemovals[this.neutralRemovalCount],
+					this.neutralRemovalPositions[this.neutralRemovalCount]);
+		}
+		this.separatorCount = 0;
+		this.wardenShoreCount = this.topology.getWardenCount();
+	}
+
+	private void touch(int vertex) {
+		if (!this.touched[vertex]) {
+			this.touched[vertex] = true;
+			this.touchedList[this.touchedCount++] = vertex;
+		}
+	}
+
+	public byte getState(Vertex node) {
+		return this.states[node.getIndex()];
+	}
+
+	/**
+	 * move the node into the given state, the neutral, separator and warden
+	 * shore counts are kept up to date, and while counting is on the black
+	 * neighbor counters of its neighbors too
+	 * 
+	 * @param node
+	 * @param state
+	 * @return true if the counters of the neighbors changed
+	 */
+	public boolean setState(Vertex node, byte state) {
+		int v = node.getIndex();
+		this.touch(v);
+		byte old = this.states[v];
+		if (old == PartitionState.NEUTRAL && state != PartitionState.NEUTRAL) {
+			this.neutralRemovals[this.neutralRemovalCount] = v;
+			this.neutralRemovalPositions[this.neutralRemovalCount++] = this.neutrals.indexOf(v);
+			this.neutrals.remove(v);
+		}
+		this.states[v] = state;
+		if (old == PartitionState.SEPARATOR) {
+			--this.separatorCount;
+		} else if (PartitionState.isWardenShoreState(old)) {
+			--this.wardenShoreCount;
+		}
+		if (state == PartitionState.SEPARATOR) {
+			++this.separatorCount;
+		} else if (PartitionState.isWardenShoreState(state)) {
+			++this.wardenShoreCount;
+		}
+
+		if (!this.countingNeighbors) {
+			return false;
+		}
+		int wardenDelta = PartitionState.countsForWarden(state) - PartitionState.countsForWarden(old);
+		int oppositeDelta = PartitionState.countsForOpposite(state) - PartitionState.countsForOpposite(old);
+		if (wardenDelta == 0 && oppositeDelta == 0) {
+			return false;
+		}
+		for (int slot = this.graph.getNeighborStart(v); slot < this.graph.getNeighborEnd(v); ++slot) {
+			int neighbor = this.graph.getNeighbor(slot);
+			this.touch(neighbor);
+			this.wardenBlackNeighbors[neighbor] += wardenDelta;
+			this.oppositeBlackNeighbors[neighbor] += oppositeDelta;
+		}
+		return true;
+	}
+
+	/**
+	 * @return 1 if a vertex in the state is a black neighbor for the warden
+	 *         side, 0 otherwise
+	 */
+	private static int countsForWarden(byte state) {
+		return state == PartitionState.WARDEN || state == PartitionState.WARDEN_BLACK
+				|| state == PartitionState.SEPARATOR ? 1 : 0;
+	}
+
+	/**
+	 * @return 1 if a vertex in the state is a black neighbor for the opposite
+	 *         side, 0 otherwise
+	 */
+	private static int countsForOpposite(byte state) {
+		return state == PartitionState.OPP_BLACK || state == PartitionState.SEPARATOR ? 1 : 0;
+	}
+
+	/**
+	 * only the degree based searches need the black neighbor counters, the
+	 * other ones skip their upkeep. Must not change during a trial.
+	 * 
+	 * @param countingNeighbors
+	 */
+	public void setCountingNeighbors(boolean countingNeighbors) {
+		this.countingNeighbors = countingNeighbors;
+	}
+
+	public boolean isNeutral(Vertex node) {
+		return this.neutrals.contains(node.getIndex());
+	}
+
+	/**
+	 * @return true if the node has been reached by the opposite side
+	 */
+	public boolean isOpposite(Vertex node) {
+		byte state = this.states[node.getIndex()];
+		return state == PartitionState.OPP_GRAY || state == PartitionState.OPP_BLACK;
+	}
+
+	@Override
+	public boolean isSeparator(int vertex) {
+		return this.states[vertex] == PartitionState.SEPARATOR;
+	}
+
+	/**
+	 * @return true for the wardens and the vertexes reached by the warden
+	 *         side that are not separators
+	 */
+	@Override
+	public boolean isWardenShore(int vertex) {
+		return PartitionState.isWardenShoreState(this.states[vertex]);
+	}
+
+	private static boolean isWardenShoreState(byte state) {
+		return state == PartitionState.WARDEN || state == PartitionState.WARDEN_GRAY
+				|| state == PartitionState.WARDEN_BLACK;
+	}
+
+	public int getSeparatorCount() {
+		return this.separatorCount;
+	}
+
+	/**
+	 * @return the number of vertexes for which isWardenShore is true,
+	 *         wardens included
+	 */
+	public int getWardenShoreCount() {
+		return this.wardenShoreCount;
+	}
+
+	public int getNeutralCount() {
+		return this.neutrals.size();
+	}
+
+	/**
+	 * @param position
+	 *            between 0 and the number of neutral vertexes - 1
+	 * @return the neutral vertex at the given position of the pool, in O(1)
+	 */
+	public Vertex getNeutralVertex(int position) {
+		return this.graph.getVertex(this.neutrals.get(position));
+	}
+
+	/**
+	 * @param node
+	 * @param wardenShore
+	 * @return the number of neighbors of the node that cannot be extended
+	 *         anymore by the given side
+	 */
+	public int getBlackNeighbors(Vertex node, boolean wardenShore) {
+		return wardenShore ? this.wardenBlackNeighbors[node.getIndex()]
+				: this.oppositeBlackNeighbors[node.getIndex()];
+	}
+
+	/**
+	 * randomly select and return a neighbor of the node that has not been
+	 * drawn in this trial yet, in O(1), if there is none, return null
+	 *
+	 * @param node
+	 * @param random
+	 * @return
+	 */
+	public Vertex randomSelectANeighbor(Vertex node, SplittableRandom random) {
+		int v = node.getIndex();
+		int start = this.graph.getNeighborStart(v);
+		if (this.cursorEpochs[v] != this.epoch) {
+			/* undo the draws of an earlier trial, back to the CSR order */
+			for (int slot = start + this.drawnNeighbors[v] - 1; slot >= start; --slot) {
+				this.swapNeighbors(slot, this.swappedSlots[slot]);
+			}
+			this.drawnNeighbors[v] = 0;
+			this.cursorEpochs[v] = this.epoch;
+		}
+		int drawnEnd = start + this.drawnNeighbors[v];
+		int remaining = this.graph.getNeighborEnd(v) - drawnEnd;
+		if (remaining == 0) {
+			return null;
+		}
+		int chosen = drawnEnd + random.nextInt(remaining);
+		this.swapNeighbors(drawnEnd, chosen);
+		this.swappedSlots[drawnEnd] = chosen;
+		++this.drawnNeighbors[v];
+		return this.graph.getVertex(this.neighborOrder[drawnEnd]);
+	}
+
+	private void swapNeighbors(int slot, int other) {
+		int swapped = this.neighborOrder[slot];
+		this.neighborOrder[slot] = this.neighborOrder[other];
+		this.neighborOrder[other] = swapped;
+	}
+}
@@ -0,0 +1,136 @@
+package sim;
+
+import java.util.Arrays;
+
+import graph.CSRGraph;
+
+/**
+ * Checks that a vertex separator really separates the warden shore from the
+ * rest of the graph: a breadth first search from all the wardens at once,
+ * stopping at separators, must only reach warden shore vertexes.
+ *
+ * The visited set is a bitset and the queue a plain int array, both reused
+ * across calls, so a check costs one pass over the warden shore and its
+ * edges without allocating. Not thread safe, every engine owns its own.
+ */
+public class SeparatorVerifier {
+
+	/**
+	 * the classification of the vertexes under test
+	 */
+	public interface Partition {
+
+		boolean isSeparator(int vertex);
+
+		/**
+		 * @return true for the wardens and the vertexes of the warden shore
+		 */
+		boolean isWardenShore(int vertex);
+	}
+
+	/**
+	 * outcome of a check, the first edge found from the warden shore to a
+	 * vertex outside the warden shore and the separators if it failed
+	 */
+	public static class Verdict {
+
+		private static final Verdict PASSED = new Verdict(-1, -1);
+
+		private final int from;
+		private final int to;
+
+		private Verdict(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		public boolean isPassed() {
+			return this.from == -1;
+		}
+
+		/**
+		 * @return the warden shore end of the violating edge, -1 if passed
+		 */
+		public int getFrom() {
+			return this.from;
+		}
+
+		/**
+		 * @return the outside end of the violating edge, -1 if passed
+		 */
+		public int getTo() {
+			return this.to;
+		}
+	}
+
+	private final CSRGraph graph;
+	private final long[] visited;
+	private final int[] queue;
+
+	public SeparatorVerifier(CSRGraph graph) {
+		this.graph = graph;
+		this.visited = new long[(graph.getVertexCount() + 63) >>> 6];
+		this.queue = new int[graph.getVertexCount()];
+	}
+
+	/**
+	 * @param wardens
+	 *            vertex indexes of the wardens, the sources of the search
+	 * @param partition
+	 * @return
+	 */
+	public Verdict verify(int[] wardens, Partition partition) {
+		Arrays.fill(this.visited, 0L);
+		int head = 0;
+		int tail = 0;
+		for (int warden : wardens) {
+			if (this.visit(warden)) {
+				this.queue[tail++] = warden;
+			}
+		}
+
+		/* every vertex is queued at most once, the array never wraps */
+		while (head < tail) {
+			int current = this.queue[head++];
+			for (int slot = this.graph.getNeighborStart(current); slot < this.graph.getNeighborEnd(current); ++slot) {
+				int neighbor = this.graph.getNeighbor(slot);
+				if (!this.visit(neighbor)) {
+					continue;
+				}
+				if (partition.isSeparator(neighbor)) {
+					continue;
+				}
+				if (!partition.isWardenShore(neighbor)) {
+					return new Verdict(current, neighbor);
+				}
+				this.queue[tail++] = neighbor;
+			}
+		}
+		return Verdict.PASSED;
+	}
+
+	/**
+	 * @return false if the vertex was already visited
+	 */
+	private boolean visit(int vertex) {
+		long bit = 1L << vertex;
+		int word = vertex >>> 6;
+		if ((this.visited[word] & bit) != 0) {
+			return false;
+		}
+		this.visited[word] |= bit;
+		return true;
+	}
+
+	/**
+	 * @param verdict
+	 * @return the violating edge as ASNs, for the logs
+	 */
+	public String describe(Verdict verdict) {
+		if (verdict.isPassed()) {
+			return "passed";
+		}
+		return "AS" + this.graph.getASN(verdict.getFrom()) + " -> AS" + this.graph.getASN(verdict.getTo())
+				+ " leaves the warden shore";
+	}
+}
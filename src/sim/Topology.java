@@ -0,0 +1,132 @@
+package sim;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+
+import graph.CSRGraph;
+import parsing.GraphSnapshot;
+
+/**
+ * The AS graph together with the wardens, loaded once and then shared read
+ * only by every trial and engine. Everything that changes during a run lives
+ * in the engines (see PartitionState), never here.
+ */
+public class Topology {
+
+	private final CSRGraph graph;
+	/** vertex indexes of the wardens, without duplicates */
+	private final int[] wardens;
+	private final boolean[] wardenFlags;
+
+	public Topology(CSRGraph graph, int[] wardens) {
+		this.graph = graph;
+		this.wardenFlags = new boolean[graph.getVertexCount()];
+		int[] distinct = new int[wardens.length];
+		int wardenCount = 0;
+		for (int warden : wardens) {
+			if (!this.wardenFlags[warden]) {
+				this.wardenFlags[warden] = true;
+				distinct[wardenCount++] = warden;
+			}
+		}
+		this.wardens = Arrays.copyOf(distinct, wardenCount);
+	}
+
+	/**
+	 * read the AS graph and the warden AS file. Wardens that are not in the
+	 * graph are ignored.
+	 *
+	 * @param asRelFile
+	 * @param wardenFile
+	 * @return
+	 * @throws IOException
+	 */
+	public static Topology load(String asRelFile, String wardenFile) throws IOException {
+		if (Constants.SEP_DEBUG) {
+			System.out.println("as file " + asRelFile);
+		}
+		CSRGraph graph = GraphSnapshot.load(asRelFile);
+		if (!Constants.SEP_DEBUG) {
+			System.out.println("Total amount of nodes: " + graph.getVertexCount());
+		}
+
+		/*
+		 * read the warden AS file
+		 */
+		System.out.println("wardenFile " + wardenFile);
+		int[] wardens = Topology.readVertices(graph, wardenFile);
+
+		/*
+		 * policy aware mode, links that no valley free path of the wardens
+		 * uses do not need to be separated
+		 */
+		if (Constants.VALLEY_FREE) {
+			int slotCount = graph.getSlotCount();
+			graph = graph.valleyFreeSubgraph(wardens);
+			if (!Constants.SEP_DEBUG) {
+				System.out.println("Valley free links: " + graph.getSlotCount() / 2
+						+ " of " + slotCount / 2);
+			}
+		}
+		return new Topology(graph, wardens);
+	}
+
+	/**
+	 * read an AS file with one ASN per line, like the warden file. ASes that
+	 * are not in the graph are ignored.
+	 *
+	 * @param graph
+	 * @param asFile
+	 * @return the vertex indexes of the ASes, in file order
+	 * @throws IOException
+	 */
+	public static int[] readVertices(CSRGraph graph, String asFile) throws IOException {
+		String pollString;
+		int[] vertices = new int[16];
+		int vertexCount = 0;
+		BufferedReader fBuff = new BufferedReader(new FileReader(asFile));
+		while ((pollString = fBuff.readLine()) != null) {
+			pollString = pollString.trim();
+			if (pollString.length() > 0) {
+				int index = graph.indexOf(Integer.parseInt(pollString));
+				if (index != -1) {
+					if (vertexCount == vertices.length) {
+						vertices = Arrays.copyOf(vertices, vertexCount * 2);
+					}
+					vertices[vertexCount++] = index;
+				}
+			}
+		}
+		fBuff.close();
+		return Arrays.copyOf(vertices, vertexCount);
+	}
+
+	public CSRGraph getGraph() {
+		return this.graph;
+	}
+
+	public int getVertexCount() {
+		return this.graph.getVertexCount();
+	}
+
+	public int getWardenCount() {
+		return this.wardens.length;
+	}
+
+	public int getWarden(int position) {
+		return this.wardens[position];
+	}
+
+	/**
+	 * @return a copy of the vertex indexes of the wardens
+	 */
+	public int[] getWardens() {
+		return this.wardens.clone();
+	}
+
+	public boolean isWarden(int vertex) {
+		return this.wardenFlags[vertex];
+	}
+}
@@ -0,0 +1,143 @@
+package sim;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs many independent partitioning trials on a shared Topology across a
+ * fixed pool of worker threads.
+ *
+ * Every worker thread owns its own GraphPartitioning (and so its own
+ * PartitionState), trials never share mutable state. The random choices of
+ * trial i only depend on the seed derived from the master seed and i, so a
+ * campaign gives the same numbers whatever the number of threads. Results
+ * are written by the calling thread in trial order, every line followed by
+ * the seed of its trial, which the rerun mode takes to repeat that trial
+ * alone.
+ */
+public class TrialRunner {
+
+	private final Topology topology;
+	private final String wardenMode;
+	private final String oppositeMode;
+	private final int threads;
+
+	/** the engine of the current worker thread */
+	private final ThreadLocal<GraphPartitioning> engines;
+
+	public TrialRunner(Topology topology, String wardenMode, String oppositeMode, int threads) {
+		this.topology = topology;
+		this.wardenMode = wardenMode;
+		this.oppositeMode = oppositeMode;
+		this.threads = threads;
+		this.engines = new ThreadLocal<GraphPartitioning>() {
+			@Override
+			protected GraphPartitioning initialValue() {
+				GraphPartitioning engine = new GraphPartitioning(TrialRunner.this.topology);
+				engine.setModes(TrialRunner.this.wardenMode, TrialRunner.this.oppositeMode);
+				return engine;
+			}
+		};
+	}
+
+	/**
+	 * run the trials and write the separator and warden shore size of every
+	 * trial into the *_SeparatorCnt.txt and *_WardenCnt.txt files, one
+	 * "size,trial seed" line per trial in trial order. Stops at the first
+	 * trial that fails.
+	 *
+	 * @param trials
+	 * @param masterSeed
+	 * @return true if all the trials passed
+	 * @throws IOException
+	 */
+	public boolean run(int trials, long masterSeed) throws IOException {
+		BufferedWriter separatorOut = new BufferedWriter(new FileWriter(this.wardenMode + "_"
+				+ this.oppositeMode + "_SeparatorCnt.txt"));
+		BufferedWriter wardenOut = new BufferedWriter(new FileWriter(this.wardenMode + "_"
+				+ this.oppositeMode + "_WardenCnt.txt"));
+		ExecutorService pool = Executors.newFixedThreadPool(this.threads);
+		boolean passed = true;
+		try {
+			List<Future<int[]>> results = new ArrayList<Future<int[]>>(trials);
+			long[] seeds = new long[trials];
+			for (int i = 0; i < trials; ++i) {
+				seeds[i] = TrialRunner.trialSeed(masterSeed, i);
+				results.add(pool.submit(new Trial(seeds[i])));
+			}
+
+			int step = Math.max(1, trials / 10);
+			for (int i = 0; i < trials; ++i) {
+				if (i % step == 0) {
+					System.out.println(100 * i / trials + "% done!");
+				}
+				int[] sizes = results.get(i).get();
+				if (sizes == null) {
+					System.out.println("Trial " + i + " failed, stop.");
+					passed = false;
+					break;
+				}
+				separatorOut.write(sizes[0] + "," + seeds[i] + "\n");
+				wardenOut.write(sizes[1] + "," + seeds[i] + "\n");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("interrupted while waiting for the trials", e);
+		} catch (ExecutionException e) {
+			throw new IOException("a trial failed", e.getCause());
+		} finally {
+			pool.shutdownNow();
+			separatorOut.close();
+			wardenOut.close();
+		}
+		return passed;
+	}
+
+	/**
+	 * spread the trial index over the whole seed space (splitmix64), so
+	 * neighboring trials do not get correlated random streams
+	 *
+	 * @param masterSeed
+	 * @param trial
+	 * @return
+	 */
+	public static long trialSeed(long masterSeed, int trial) {
+		long z = masterSeed + (trial + 1) * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * one trial on the engine of the worker thread running it
+	 */
+	private class Trial implements Callable<int[]> {
+
+		private final long seed;
+
+		Trial(long seed) {
+			this.seed = seed;
+		}
+
+		/**
+		 * @return the separator and the warden shore size, null if the trial
+		 *         failed
+		 */
+		@Override
+		public int[] call() {
+			GraphPartitioning engine = TrialRunner.this.engines.get();
+			if (!engine.runTrial(this.seed)) {
+				return null;
+			}
+			return new int[] { engine.getSeparatorSize(), engine.getWardenShoreSize() };
+		}
+	}
+}
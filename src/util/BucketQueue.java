@@ -0,0 +1,163 @@
+package util;
+
+/**
+ * A priority queue for small bounded int priorities (degrees, neighbor
+ * counts): one bucket per priority between minPriority and maxPriority,
+ * each an intrusive doubly linked list threaded through per element arrays.
+ *
+ * add, remove and update are O(1). poll moves a pointer to the smallest non
+ * empty bucket, which only moves down when a smaller priority is added, so
+ * its scans are bounded by the priority range. Elements of the same
+ * priority come out first in, first out.
+ */
+public class BucketQueue implements IntPriorityQueue {
+
+	private static final int NONE = -1;
+
+	private final int minPriority;
+	/** first and last element of every bucket, NONE if empty */
+	private final int[] heads;
+	private final int[] tails;
+	private final int[] next;
+	private final int[] previous;
+	private final int[] priorities;
+	private final boolean[] queued;
+	/** no bucket below this one is used */
+	private int lowestBucket;
+	private int size;
+
+	public BucketQueue(int capacity, int minPriority, int maxPriority) {
+		this.minPriority = minPriority;
+		this.heads = new int[maxPriority - minPriority + 1];
+		this.tails = new int[maxPriority - minPriority + 1];
+		for (int bucket = 0; bucket < this.heads.length; ++bucket) {
+			this.heads[bucket] = BucketQueue.NONE;
+			this.tails[bucket] = BucketQueue.NONE;
+		}
+		this.next = new int[capacity];
+		this.previous = new int[capacity];
+		this.priorities = new int[capacity];
+		this.queued = new boolean[capacity];
+		this.lowestBucket = this.heads.length;
+		this.size = 0;
+	}
+
+	@Override
+	public void add(int element, int priority) {
+		if (this.queued[element]) {
+			this.update(element, priority);
+			return;
+		}
+		this.queued[element] = true;
+		this.priorities[element] = priority;
+		this.link(element);
+		++this.size;
+	}
+
+	@Override
+	public void update(int element, int priority) {
+		if (this.priorities[element] == priority) {
+			return;
+		}
+		this.unlink(element);
+		this.priorities[element] = priority;
+		this.link(element);
+	}
+
+	@Override
+	public int peek() {
+		while (this.heads[this.lowestBucket] == BucketQueue.NONE) {
+			++this.lowestBucket;
+		}
+		return this.heads[this.lowestBucket];
+	}
+
+	@Override
+	public int poll() {
+		int top = this.peek();
+		this.remove(top);
+		return top;
+	}
+
+	@Override
+	public boolean remove(int element) {
+		if (!this.queued[element]) {
+			return false;
+		}
+		this.unlink(element);
+		this.queued[element] = false;
+		--this.size;
+		return true;
+	}
+
+	@Override
+	public boolean contains(int element) {
+		return this.queued[element];
+	}
+
+	@Override
+	public int getPriority(int element) {
+		return this.priorities[element];
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	@Override
+	public void clear() {
+		for (int bucket = this.lowestBucket; this.size > 0; ++bucket) {
+			for (int element = this.heads[bucket]; element != BucketQueue.NONE; element = this.next[element]) {
+				this.queued[element] = false;
+				--this.size;
+			}
+			this.heads[bucket] = BucketQueue.NONE;
+			this.tails[bucket] = BucketQueue.NONE;
+		}
+		this.lowestBucket = this.heads.length;
+	}
+
+	/**
+	 * append the element to the bucket of its priority
+	 */
+	private void link(int element) {
+		int bucket = this.priorities[element] - this.minPriority;
+		if (bucket < 0 || bucket >= this.heads.length) {
+			throw new IllegalArgumentException("priority " + this.priorities[element] + " out of range");
+		}
+		int tail = this.tails[bucket];
+		this.previous[element] = tail;
+		this.next[element] = BucketQueue.NONE;
+		if (tail == BucketQueue.NONE) {
+			this.heads[bucket] = element;
+		} else {
+			this.next[tail] = element;
+		}
+		this.tails[bucket] = element;
+		if (bucket < this.lowestBucket) {
+			this.lowestBucket = bucket;
+		}
+	}
+
+	private void unlink(int element) {
+		int bucket = this.priorities[element] - this.minPriority;
+		int before = this.previous[element];
+		int after = this.next[element];
+		if (before == BucketQueue.NONE) {
+			this.heads[bucket] = after;
+		} else {
+			this.next[before] = after;
+		}
+		if (after == BucketQueue.NONE) {
+			this.tails[bucket] = before;
+		} else {
+			this.previous[after] = before;
+		}
+	}
+}
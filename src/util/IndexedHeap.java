@@ -0,0 +1,163 @@
+package util;
+
+/**
+ * A binary min heap of dense int elements (vertex indexes) between 0 and
+ * capacity - 1, each with an int priority.
+ *
+ * The heap keeps its own copy of the priorities and the position of every
+ * element, so membership is O(1) and the priority of a queued element can be
+ * changed in O(log n) with update(). Changing the data a priority was
+ * computed from does not affect the heap until update() is called.
+ */
+public class IndexedHeap implements IntPriorityQueue {
+
+	private static final int ABSENT = -1;
+
+	/** heap ordered elements */
+	private final int[] heap;
+	/** position of every element in heap, ABSENT if not queued */
+	private final int[] positions;
+	/** priority of every queued element */
+	private final int[] priorities;
+	private int size;
+
+	public IndexedHeap(int capacity) {
+		this.heap = new int[capacity];
+		this.positions = new int[capacity];
+		this.priorities = new int[capacity];
+		for (int element = 0; element < capacity; ++element) {
+			this.positions[element] = IndexedHeap.ABSENT;
+		}
+		this.size = 0;
+	}
+
+	@Override
+	public void add(int element, int priority) {
+		if (this.positions[element] != IndexedHeap.ABSENT) {
+			this.update(element, priority);
+			return;
+		}
+		this.heap[this.size] = element;
+		this.positions[element] = this.size;
+		this.priorities[element] = priority;
+		++this.size;
+		this.siftUp(this.size - 1);
+	}
+
+	@Override
+	public void update(int element, int priority) {
+		int old = this.priorities[element];
+		this.priorities[element] = priority;
+		if (priority < old) {
+			this.siftUp(this.positions[element]);
+		} else if (priority > old) {
+			this.siftDown(this.positions[element]);
+		}
+	}
+
+	@Override
+	public int peek() {
+		return this.heap[0];
+	}
+
+	@Override
+	public int poll() {
+		int top = this.heap[0];
+		this.removeAt(0);
+		return top;
+	}
+
+	@Override
+	public boolean remove(int element) {
+		int position = this.positions[element];
+		if (position == IndexedHeap.ABSENT) {
+			return false;
+		}
+		this.removeAt(position);
+		return true;
+	}
+
+	@Override
+	public boolean contains(int element) {
+		return this.positions[element] != IndexedHeap.ABSENT;
+	}
+
+	@Override
+	public int getPriority(int element) {
+		return this.priorities[element];
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; i < this.size; ++i) {
+			this.positions[this.heap[i]] = IndexedHeap.ABSENT;
+		}
+		this.size = 0;
+	}
+
+	private void removeAt(int position) {
+		int removed = this.heap[position];
+		--this.size;
+		this.positions[removed] = IndexedHeap.ABSENT;
+		if (position == this.size) {
+			return;
+		}
+		int last = this.heap[this.size];
+		this.heap[position] = last;
+		this.positions[last] = position;
+		if (this.priorities[last] < this.priorities[removed]) {
+			this.siftUp(position);
+		} else {
+			this.siftDown(position);
+		}
+	}
+
+	private void siftUp(int position) {
+		int element = this.heap[position];
+		int priority = this.priorities[element];
+		while (position > 0) {
+			int parent = (position - 1) >>> 1;
+			int parentElement = this.heap[parent];
+			if (this.priorities[parentElement] <= priority) {
+				break;
+			}
+			this.heap[position] = parentElement;
+			this.positions[parentElement] = position;
+			position = parent;
+		}
+		this.heap[position] = element;
+		this.positions[element] = position;
+	}
+
+	private void siftDown(int position) {
+		int element = this.heap[position];
+		int priority = this.priorities[element];
+		int half = this.size >>> 1;
+		while (position < half) {
+			int child = 2 * position + 1;
+			int right = child + 1;
+			if (right < this.size && this.priorities[this.heap[right]] < this.priorities[this.heap[child]]) {
+				child = right;
+			}
+			int childElement = this.heap[child];
+			if (priority <= this.priorities[childElement]) {
+				break;
+			}
+			this.heap[position] = childElement;
+			this.positions[childElement] = position;
+			position = child;
+		}
+		this.heap[position] = element;
+		this.positions[element] = position;
+	}
+}
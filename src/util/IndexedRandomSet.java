@@ -0,0 +1,120 @@
+package util;
+
+/**
+ * A set of dense int keys (vertex indexes) between 0 and capacity - 1 with
+ * O(1) add, remove, contains and access by position, so a uniformly random
+ * member can be drawn with get(random.nextInt(size())).
+ *
+ * The members are packed in an array and every key remembers its position,
+ * a removed member is replaced by the last one. The order of the members is
+ * therefore not the insertion order.
+ */
+public class IndexedRandomSet {
+
+	private static final int ABSENT = -1;
+
+	private final int[] elements;
+	/** position of every key in elements, ABSENT if not a member */
+	private final int[] positions;
+	private int size;
+
+	public IndexedRandomSet(int capacity) {
+		this.elements = new int[capacity];
+		this.positions = new int[capacity];
+		for (int key = 0; key < capacity; ++key) {
+			this.positions[key] = IndexedRandomSet.ABSENT;
+		}
+		this.size = 0;
+	}
+
+	/**
+	 * @param key
+	 * @return false if the key is already a member
+	 */
+	public boolean add(int key) {
+		if (this.positions[key] != IndexedRandomSet.ABSENT) {
+			return false;
+		}
+		this.elements[this.size] = key;
+		this.positions[key] = this.size;
+		++this.size;
+		return true;
+	}
+
+	/**
+	 * @param key
+	 * @return false if the key is not a member
+	 */
+	public boolean remove(int key) {
+		int position = this.positions[key];
+		if (position == IndexedRandomSet.ABSENT) {
+			return false;
+		}
+		--this.size;
+		int last = this.elements[this.size];
+		this.elements[position] = last;
+		this.positions[last] = position;
+		this.positions[key] = IndexedRandomSet.ABSENT;
+		return true;
+	}
+
+	/**
+	 * @param key
+	 * @return the position of the key, -1 if it is not a member
+	 */
+	public int indexOf(int key) {
+		return this.positions[key];
+	}
+
+	/**
+	 * undo remove(key), putting the key back at the position it had and the
+	 * member that replaced it back at the end. Undoing the removals in
+	 * reverse order restores the exact order of the members.
+	 * 
+	 * @param key
+	 *            not a member
+	 * @param position
+	 *            indexOf(key) before it was removed
+	 */
+	public void restore(int key, int position) {
+		if (position < this.size) {
+			int moved = this.elements[position];
+			this.elements[this.size] = moved;
+			this.positions[moved] = this.size;
+		}
+		this.elements[position] = key;
+		this.positions[key] = position;
+		++this.size;
+	}
+
+	public boolean contains(int key) {
+		return this.positions[key] != IndexedRandomSet.ABSENT;
+	}
+
+	/**
+	 * @param position
+	 *            between 0 and size() - 1
+	 * @return the member at the given position
+	 */
+	public int get(int position) {
+		return this.elements[position];
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	/**
+	 * remove all the members, in O(size)
+	 */
+	public void clear() {
+		for (int i = 0; i < this.size; ++i) {
+			this.positions[this.elements[i]] = IndexedRandomSet.ABSENT;
+		}
+		this.size = 0;
+	}
+}
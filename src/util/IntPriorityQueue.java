@@ -0,0 +1,63 @@
+package util;
+
+/**
+ * A priority queue of dense int elements (vertex indexes) with int
+ * priorities, smallest priority first. Every element is queued at most once
+ * and its priority can be changed while it is queued.
+ */
+public interface IntPriorityQueue {
+
+	/**
+	 * queue the element, or change its priority if it is already queued
+	 *
+	 * @param element
+	 * @param priority
+	 */
+	public void add(int element, int priority);
+
+	/**
+	 * change the priority of a queued element
+	 *
+	 * @param element
+	 * @param priority
+	 */
+	public void update(int element, int priority);
+
+	/**
+	 * @return an element with the smallest priority, the queue must not be
+	 *         empty
+	 */
+	public int peek();
+
+	/**
+	 * remove and return an element with the smallest priority, the queue must
+	 * not be empty
+	 *
+	 * @return
+	 */
+	public int poll();
+
+	/**
+	 * @param element
+	 * @return false if the element is not queued
+	 */
+	public boolean remove(int element);
+
+	public boolean contains(int element);
+
+	/**
+	 * @param element
+	 *            a queued element
+	 * @return its current priority
+	 */
+	public int getPriority(int element);
+
+	public int size();
+
+	public boolean isEmpty();
+
+	/**
+	 * remove all the elements, in O(size)
+	 */
+	public void clear();
+}
@@ -0,0 +1,106 @@
+package util;
+
+import java.util.SplittableRandom;
+
+/**
+ * A first in first out queue of int keys (vertex indexes) in a ring buffer,
+ * with no boxing and no node allocation, unlike java.util.LinkedList.
+ *
+ * The buffer doubles when it is full and is never shrunk, so once it fits a
+ * trial the following trials do not allocate at all.
+ */
+public class IntRingQueue {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private int[] elements;
+	/** position of the head in elements */
+	private int head;
+	private int size;
+
+	public IntRingQueue() {
+		this(IntRingQueue.INITIAL_CAPACITY);
+	}
+
+	public IntRingQueue(int capacity) {
+		this.elements = new int[Math.max(1, capacity)];
+		this.head = 0;
+		this.size = 0;
+	}
+
+	public void add(int element) {
+		if (this.size == this.elements.length) {
+			this.grow();
+		}
+		this.elements[this.position(this.size)] = element;
+		++this.size;
+	}
+
+	/**
+	 * @return the head element, the queue must not be empty
+	 */
+	public int peek() {
+		return this.elements[this.head];
+	}
+
+	/**
+	 * @return the head element after removing it, the queue must not be empty
+	 */
+	public int poll() {
+		int element = this.elements[this.head];
+		this.head = this.position(1);
+		--this.size;
+		return element;
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	public void clear() {
+		this.head = 0;
+		this.size = 0;
+	}
+
+	/**
+	 * shuffle the elements in place, the same Fisher-Yates walk from the
+	 * tail back as Collections.shuffle
+	 * 
+	 * @param random
+	 */
+	public void shuffle(SplittableRandom random) {
+		for (int i = this.size; i > 1; --i) {
+			int last = this.position(i - 1);
+			int other = this.position(random.nextInt(i));
+			int swapped = this.elements[last];
+			this.elements[last] = this.elements[other];
+			this.elements[other] = swapped;
+		}
+	}
+
+	/**
+	 * @param offset
+	 *            from the head, less than the capacity
+	 * @return the position in elements
+	 */
+	private int position(int offset) {
+		int position = this.head + offset;
+		return position < this.elements.length ? position : position - this.elements.length;
+	}
+
+	/**
+	 * double the buffer, unwrapping the elements to start at 0
+	 */
+	private void grow() {
+		int[] grown = new int[2 * this.elements.length];
+		int firstPart = Math.min(this.size, this.elements.length - this.head);
+		System.arraycopy(this.elements, this.head, grown, 0, firstPart);
+		System.arraycopy(this.elements, 0, grown, firstPart, this.size - firstPart);
+		this.elements = grown;
+		this.head = 0;
+	}
+}
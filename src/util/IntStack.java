@@ -0,0 +1,66 @@
+package util;
+
+import java.util.SplittableRandom;
+
+/**
+ * A last in first out stack of int keys (vertex indexes) on a plain array,
+ * with no boxing and no locking, unlike java.util.Stack.
+ *
+ * The capacity is fixed, a searching trial pushes every vertex at most once
+ * so the vertex count is enough.
+ */
+public class IntStack {
+
+	private final int[] elements;
+	private int size;
+
+	public IntStack(int capacity) {
+		this.elements = new int[capacity];
+		this.size = 0;
+	}
+
+	public void push(int element) {
+		this.elements[this.size++] = element;
+	}
+
+	/**
+	 * @return the top element, the stack must not be empty
+	 */
+	public int peek() {
+		return this.elements[this.size - 1];
+	}
+
+	/**
+	 * @return the top element after removing it, the stack must not be empty
+	 */
+	public int pop() {
+		return this.elements[--this.size];
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	public void clear() {
+		this.size = 0;
+	}
+
+	/**
+	 * shuffle the elements in place, the same Fisher-Yates walk from the top
+	 * down as Collections.shuffle
+	 * 
+	 * @param random
+	 */
+	public void shuffle(SplittableRandom random) {
+		for (int i = this.size; i > 1; --i) {
+			int j = random.nextInt(i);
+			int swapped = this.elements[i - 1];
+			this.elements[i - 1] = this.elements[j];
+			this.elements[j] = swapped;
+		}
+	}
+}